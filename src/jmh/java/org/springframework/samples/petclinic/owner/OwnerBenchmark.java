@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.samples.petclinic.model.NamedEntityRegistry;
+import org.springframework.samples.petclinic.visit.Visit;
+
+/**
+ * Benchmarks of the {@link Owner} and {@link Pet} association getters, which the
+ * templates call repeatedly while rendering, and of the {@link PetTypeFormatter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OwnerBenchmark {
+
+	private static final String[] PET_TYPES = { "cat", "dog", "lizard", "snake", "bird", "hamster" };
+
+	@Param({ "2", "20" })
+	public int pets;
+
+	@Param({ "5", "50" })
+	public int visitsPerPet;
+
+	private Owner owner;
+
+	private Pet pet;
+
+	private String lastPetName;
+
+	private PetTypeFormatter formatter;
+
+	@Setup
+	public void setup() {
+		this.owner = new Owner();
+		this.owner.setId(1);
+		LocalDate today = LocalDate.now();
+		for (int i = 0; i < this.pets; i++) {
+			Pet pet = new Pet();
+			pet.setName("Pet " + (this.pets - i));
+			pet.setBirthDate(today.minusYears(i % 10));
+			this.owner.addPet(pet);
+			pet.setId(i + 1);
+			for (int j = 0; j < this.visitsPerPet; j++) {
+				Visit visit = new Visit();
+				visit.setId(i * this.visitsPerPet + j + 1);
+				visit.setDate(today.minusDays((j * 37) % 1000));
+				visit.setDescription("visit " + j);
+				pet.addVisit(visit);
+			}
+			this.pet = pet;
+		}
+		this.lastPetName = this.pet.getName().toUpperCase(Locale.ROOT);
+
+		List<PetType> petTypes = new ArrayList<>();
+		for (int i = 0; i < PET_TYPES.length; i++) {
+			PetType petType = new PetType();
+			petType.setId(i + 1);
+			petType.setName(PET_TYPES[i]);
+			petTypes.add(petType);
+		}
+		NamedEntityRegistry<PetType> registry = new NamedEntityRegistry<>(() -> petTypes);
+		registry.refresh();
+		this.formatter = new PetTypeFormatter(registry);
+	}
+
+	@Benchmark
+	public List<Pet> getPets() {
+		return this.owner.getPets();
+	}
+
+	@Benchmark
+	public List<Visit> getVisits() {
+		return this.pet.getVisits();
+	}
+
+	@Benchmark
+	public Optional<Pet> getPet() {
+		return this.owner.getPet(this.lastPetName, false);
+	}
+
+	@Benchmark
+	public Optional<Pet> getPetIgnoringNew() {
+		return this.owner.getPet(this.lastPetName, true);
+	}
+
+	@Benchmark
+	public PetType parsePetType() throws ParseException {
+		return this.formatter.parse("hamster", Locale.ENGLISH);
+	}
+
+}
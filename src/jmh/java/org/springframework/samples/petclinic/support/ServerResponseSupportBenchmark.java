@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.support;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.samples.petclinic.model.NamedEntityRegistry;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetType;
+import org.springframework.samples.petclinic.owner.PetTypeFormatter;
+import org.springframework.samples.petclinic.owner.PetValidator;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.bind.ServletRequestDataBinder;
+
+/**
+ * Benchmarks of the {@link ServerResponseSupport} methods used by every form submission:
+ * creating the binder, a full bind and validate cycle of the pet form, and building the
+ * redirect view name.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServerResponseSupportBenchmark {
+
+	private LocalValidatorFactoryBean validator;
+
+	private ServerResponseSupport<Pet> support;
+
+	private MockHttpServletRequest request;
+
+	@Setup
+	public void setup() {
+		PetType cat = new PetType();
+		cat.setId(1);
+		cat.setName("cat");
+		NamedEntityRegistry<PetType> petTypes = new NamedEntityRegistry<>(() -> List.of(cat));
+		petTypes.refresh();
+		DefaultFormattingConversionService conversionService = new DefaultFormattingConversionService();
+		conversionService.addFormatter(new PetTypeFormatter(petTypes));
+		this.validator = new LocalValidatorFactoryBean();
+		this.validator.afterPropertiesSet();
+		this.support = new ServerResponseSupport<>(this.validator, conversionService);
+
+		this.request = new MockHttpServletRequest("POST", "/owners/1/pets/new");
+		this.request.addParameter("name", "Leo");
+		this.request.addParameter("birthDate", "2010-09-07");
+		this.request.addParameter("type", "cat");
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.validator.close();
+	}
+
+	@Benchmark
+	public ServletRequestDataBinder binder() {
+		return this.support.binder(new Pet(), "pet");
+	}
+
+	@Benchmark
+	public BindingResult bindAndValidate() {
+		ServletRequestDataBinder binder = this.support.binder(new Pet(), "pet");
+		binder.bind(this.request);
+		binder.addValidators(new PetValidator());
+		binder.validate();
+		return binder.getBindingResult();
+	}
+
+	@Benchmark
+	public String buildRedirectURI() {
+		return this.support.buildRedirectURI(42, "owners");
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.visit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.PetClinicApplication;
+
+/**
+ * Benchmarks of inserting visits, in rows per second: one {@link VisitRepository#save}
+ * and transaction per visit, as the visit form does, against a single
+ * {@link VisitRepository#saveAll}, with and without JDBC batching.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VisitBulkSaveBenchmark {
+
+	private static final int ROWS = 1000;
+
+	@Param({ "1", "50" })
+	public int batchSize;
+
+	private ConfigurableApplicationContext context;
+
+	private VisitRepository visits;
+
+	private List<Visit> batch;
+
+	@Setup
+	public void startApplication() {
+		this.context = new SpringApplicationBuilder(PetClinicApplication.class)
+				.logStartupInfo(false)
+				.properties("spring.datasource.url=jdbc:hsqldb:mem:visitbenchmark",
+						"spring.jpa.properties.hibernate.jdbc.batch_size=" + this.batchSize,
+						"server.port=0", "logging.level.root=WARN")
+				.run();
+		this.visits = this.context.getBean(VisitRepository.class);
+	}
+
+	@Setup(Level.Invocation)
+	public void createVisits() {
+		this.batch = new ArrayList<>(ROWS);
+		LocalDate today = LocalDate.now();
+		for (int i = 0; i < ROWS; i++) {
+			Visit visit = new Visit();
+			visit.setPetId(1 + i % 13);
+			visit.setDate(today.minusDays(i % 365));
+			visit.setDescription("checkup");
+			this.batch.add(visit);
+		}
+	}
+
+	/**
+	 * Remove the inserted visits, so that every iteration starts from the same table.
+	 */
+	@TearDown(Level.Iteration)
+	public void deleteVisits() {
+		this.context.getBean(JdbcTemplate.class).update("DELETE FROM visits WHERE description = 'checkup'");
+	}
+
+	@TearDown
+	public void stopApplication() {
+		this.context.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void saveEach() {
+		for (Visit visit : this.batch) {
+			this.visits.save(visit);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void saveAll() {
+		this.visits.saveAll(this.batch);
+	}
+
+}
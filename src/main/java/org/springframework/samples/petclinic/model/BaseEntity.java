@@ -16,15 +16,25 @@
 package org.springframework.samples.petclinic.model;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.springframework.data.domain.DomainEvents;
+
 /**
  * Simple JavaBean domain object with an id property. Used as a base class for objects
  * needing this property.
+ * <p>
+ * Ids are allocated in blocks of {@value #ID_ALLOCATION_SIZE} by the
+ * {@link IdBlockGenerator}, rather than generated by identity columns, so that Hibernate
+ * knows the ids before inserting and can send the inserts in JDBC batches.
+ * </p>
  *
  * @author Ken Krebs
  * @author Juergen Hoeller
@@ -32,8 +42,15 @@ import javax.persistence.MappedSuperclass;
 @MappedSuperclass
 public class BaseEntity implements Serializable {
 
+	/**
+	 * Number of ids allocated at once, matching the JDBC batch size.
+	 */
+	public static final int ID_ALLOCATION_SIZE = 50;
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "id_generators")
+	@GenericGenerator(name = "id_generators", strategy = "org.springframework.samples.petclinic.model.IdBlockGenerator",
+			parameters = @Parameter(name = IdBlockGenerator.BLOCK_SIZE, value = "" + ID_ALLOCATION_SIZE))
 	private Integer id;
 
 	public Integer getId() {
@@ -48,4 +65,14 @@ public class BaseEntity implements Serializable {
 		return this.id == null;
 	}
 
+	/**
+	 * Events published by Spring Data once this entity has been passed to a repository
+	 * <code>save</code> method.
+	 * @return an {@link EntitySavedEvent} for this entity
+	 */
+	@DomainEvents
+	protected Collection<Object> savedEvents() {
+		return Collections.singletonList(new EntitySavedEvent<>(this));
+	}
+
 }
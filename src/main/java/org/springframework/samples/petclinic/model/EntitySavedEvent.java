@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.model;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+/**
+ * Event published by the Spring Data repositories every time an entity is saved. The
+ * event exposes the type of the saved entity as its generic type, so listeners can
+ * declare the entities they are interested in, as in
+ * <code>@EventListener void ownerSaved(EntitySavedEvent&lt;Owner&gt; event)</code>.
+ *
+ * @see BaseEntity#savedEvents()
+ */
+public class EntitySavedEvent<T extends BaseEntity> implements ResolvableTypeProvider {
+
+	private final T entity;
+
+	public EntitySavedEvent(T entity) {
+		this.entity = entity;
+	}
+
+	public T getEntity() {
+		return this.entity;
+	}
+
+	@Override
+	public ResolvableType getResolvableType() {
+		return ResolvableType.forClassWithGenerics(getClass(), ResolvableType.forInstance(this.entity));
+	}
+
+}
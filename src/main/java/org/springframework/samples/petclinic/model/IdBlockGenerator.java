@@ -0,0 +1,152 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.model;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.jdbc.AbstractReturningWork;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+import org.springframework.lang.Nullable;
+
+/**
+ * Hibernate {@link IdentifierGenerator} handing out the ids of an entity table from
+ * blocks reserved in the <code>id_generators</code> table, which holds the next free id
+ * of each table. Since ids are known before inserting, inserts can be sent in JDBC
+ * batches.
+ * <p>
+ * A block is reserved in a transaction of its own, which needs a second connection while
+ * the connection of the current transaction is in use. It is taken from the data source
+ * given in the {@value #DATA_SOURCE} setting, if any, so that threads holding all the
+ * connections of the main pool cannot starve the reservation. Without it, the connection
+ * is taken from the main pool.
+ * </p>
+ *
+ * @see BaseEntity
+ */
+public class IdBlockGenerator implements IdentifierGenerator, Configurable {
+
+	/**
+	 * Hibernate setting holding the {@link DataSource} used to reserve blocks of ids.
+	 */
+	public static final String DATA_SOURCE = "petclinic.id_generators.data_source";
+
+	/**
+	 * Parameter of the generator holding the number of ids reserved at once.
+	 */
+	public static final String BLOCK_SIZE = "block_size";
+
+	private static final String RESERVE_SQL = "UPDATE id_generators SET next_val = next_val + ? WHERE name = ?";
+
+	private static final String SELECT_SQL = "SELECT next_val FROM id_generators WHERE name = ?";
+
+	private String table;
+
+	private int blockSize;
+
+	@Nullable
+	private DataSource dataSource;
+
+	private int next;
+
+	private int end;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+		this.table = params.getProperty(PersistentIdentifierGenerator.TABLE);
+		this.blockSize = ConfigurationHelper.getInt(BLOCK_SIZE, params, 1);
+		Object dataSource = serviceRegistry.getService(ConfigurationService.class).getSettings().get(DATA_SOURCE);
+		this.dataSource = (dataSource instanceof DataSource) ? (DataSource) dataSource : null;
+	}
+
+	@Override
+	public synchronized Serializable generate(SharedSessionContractImplementor session, Object object) {
+		if (this.next == this.end) {
+			this.next = reserveBlock(session);
+			this.end = this.next + this.blockSize;
+		}
+		return this.next++;
+	}
+
+	private int reserveBlock(SharedSessionContractImplementor session) {
+		if (this.dataSource == null) {
+			return session.getTransactionCoordinator().createIsolationDelegate()
+					.delegateWork(new AbstractReturningWork<Integer>() {
+
+						@Override
+						public Integer execute(Connection connection) throws SQLException {
+							return reserveBlock(connection);
+						}
+
+					}, true);
+		}
+		try (Connection connection = this.dataSource.getConnection()) {
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try {
+				int first = reserveBlock(connection);
+				connection.commit();
+				return first;
+			}
+			catch (SQLException | RuntimeException ex) {
+				connection.rollback();
+				throw ex;
+			}
+			finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		}
+		catch (SQLException ex) {
+			throw session.getJdbcServices().getSqlExceptionHelper().convert(ex,
+					"Could not reserve ids for table " + this.table, RESERVE_SQL);
+		}
+	}
+
+	/**
+	 * Move the next free id past the block and return the first id of the block.
+	 */
+	private int reserveBlock(Connection connection) throws SQLException {
+		try (PreparedStatement update = connection.prepareStatement(RESERVE_SQL)) {
+			update.setInt(1, this.blockSize);
+			update.setString(2, this.table);
+			if (update.executeUpdate() != 1) {
+				throw new HibernateException("No row for table " + this.table + " in id_generators");
+			}
+		}
+		try (PreparedStatement select = connection.prepareStatement(SELECT_SQL)) {
+			select.setString(1, this.table);
+			try (ResultSet resultSet = select.executeQuery()) {
+				resultSet.next();
+				return resultSet.getInt(1) - this.blockSize;
+			}
+		}
+	}
+
+}
@@ -15,6 +15,8 @@
  */
 package org.springframework.samples.petclinic.model;
 
+import java.util.Comparator;
+
 import javax.persistence.Column;
 import javax.persistence.MappedSuperclass;
 
@@ -28,6 +30,12 @@ import javax.persistence.MappedSuperclass;
 @MappedSuperclass
 public class NamedEntity extends BaseEntity {
 
+	/**
+	 * Orders named entities by name, ignoring case, with unnamed entities last.
+	 */
+	public static final Comparator<NamedEntity> NAME_ORDER = Comparator.comparing(NamedEntity::getName,
+			Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
 	@Column(name = "name")
 	private String name;
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.model;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.Nullable;
+
+/**
+ * In-memory registry of a small reference table of {@link NamedEntity}s, such as pet
+ * types, so that they can be listed and looked up by id or name without querying the
+ * database on every request.
+ * <p>
+ * The entities are loaded once the application is ready and kept in an immutable
+ * snapshot. Call {@link #refresh()} or {@link #invalidate()} after the underlying table
+ * changes.
+ * </p>
+ *
+ * @param <T> the type of the entities
+ */
+public class NamedEntityRegistry<T extends NamedEntity> implements ApplicationListener<ApplicationReadyEvent> {
+
+	private final Supplier<? extends Collection<T>> loader;
+
+	@Nullable
+	private volatile Snapshot<T> snapshot;
+
+	/**
+	 * Create a new registry.
+	 * @param loader loads all the entities, in the order they should be listed
+	 */
+	public NamedEntityRegistry(Supplier<? extends Collection<T>> loader) {
+		this.loader = loader;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		refresh();
+	}
+
+	/**
+	 * Return all the entities, in the order they were loaded.
+	 */
+	public List<T> findAll() {
+		return current().all;
+	}
+
+	public Optional<T> findById(Integer id) {
+		return Optional.ofNullable(current().byId.get(id));
+	}
+
+	public Optional<T> findByName(String name) {
+		return Optional.ofNullable(current().byName.get(name));
+	}
+
+	/**
+	 * Reload the entities right away.
+	 */
+	public void refresh() {
+		this.snapshot = new Snapshot<>(this.loader.get());
+	}
+
+	/**
+	 * Discard the loaded entities, so that they are reloaded on next access.
+	 */
+	public void invalidate() {
+		this.snapshot = null;
+	}
+
+	private Snapshot<T> current() {
+		Snapshot<T> snapshot = this.snapshot;
+		if (snapshot == null) {
+			snapshot = new Snapshot<>(this.loader.get());
+			this.snapshot = snapshot;
+		}
+		return snapshot;
+	}
+
+	private static final class Snapshot<T extends NamedEntity> {
+
+		final List<T> all;
+
+		final Map<Integer, T> byId;
+
+		final Map<String, T> byName;
+
+		Snapshot(Collection<T> entities) {
+			this.all = List.copyOf(entities);
+			Map<Integer, T> byId = new HashMap<>();
+			Map<String, T> byName = new HashMap<>();
+			for (T entity : this.all) {
+				if (entity.getId() != null) {
+					byId.put(entity.getId(), entity);
+				}
+				if (entity.getName() != null) {
+					byName.putIfAbsent(entity.getName(), entity);
+				}
+			}
+			this.byId = Map.copyOf(byId);
+			this.byName = Map.copyOf(byName);
+		}
+
+	}
+
+}
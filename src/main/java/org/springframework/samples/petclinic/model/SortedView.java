@@ -0,0 +1,100 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Immutable, sorted snapshot of an entity association, such as the pets of an owner.
+ * Entities keep the view of their association and return it from their getter for as long
+ * as it is up to date, rather than copying and sorting the collection on every call made
+ * by the templates while rendering.
+ * <p>
+ * A view is reused as long as the association is the same collection, still iterating
+ * over the same elements, and its elements are still in order. Checking that is linear
+ * but allocates nothing, and catches the changes made behind the entity's back, such as a
+ * pet being renamed or an element being replaced by another one. Entities still discard
+ * the view when they add elements or replace the collection.
+ * </p>
+ *
+ * @param <T> the type of the elements
+ */
+public final class SortedView<T> {
+
+	private final Collection<T> source;
+
+	private final Comparator<? super T> comparator;
+
+	private final Object[] sourceElements;
+
+	private final List<T> elements;
+
+	private SortedView(Collection<T> source, Comparator<? super T> comparator) {
+		List<T> elements = new ArrayList<>(source);
+		this.sourceElements = elements.toArray();
+		elements.sort(comparator);
+		this.source = source;
+		this.comparator = comparator;
+		this.elements = Collections.unmodifiableList(elements);
+	}
+
+	/**
+	 * Return the given view if it is still up to date with the association, or a new view
+	 * of the association otherwise.
+	 * @param view the current view, if any
+	 * @param source the association
+	 * @param comparator the order of the view
+	 */
+	public static <T> SortedView<T> of(@Nullable SortedView<T> view, Collection<T> source,
+			Comparator<? super T> comparator) {
+		if (view != null && view.isUpToDate(source, comparator)) {
+			return view;
+		}
+		return new SortedView<>(source, comparator);
+	}
+
+	private boolean isUpToDate(Collection<T> source, Comparator<? super T> comparator) {
+		if (this.source != source || this.comparator != comparator || this.sourceElements.length != source.size()) {
+			return false;
+		}
+		int i = 0;
+		for (T element : source) {
+			if (element != this.sourceElements[i++]) {
+				return false;
+			}
+		}
+		for (int j = 1; j < this.elements.size(); j++) {
+			if (comparator.compare(this.elements.get(j - 1), this.elements.get(j)) > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return the sorted elements, as an unmodifiable list.
+	 */
+	public List<T> getElements() {
+		return this.elements;
+	}
+
+}
@@ -15,8 +15,6 @@
  */
 package org.springframework.samples.petclinic.owner;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -30,10 +28,12 @@ import javax.persistence.Table;
 import javax.validation.constraints.Digits;
 import javax.validation.constraints.NotEmpty;
 
-import org.springframework.beans.support.MutableSortDefinition;
-import org.springframework.beans.support.PropertyComparator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.core.style.ToStringCreator;
+import org.springframework.samples.petclinic.model.NamedEntity;
 import org.springframework.samples.petclinic.model.Person;
+import org.springframework.samples.petclinic.model.SortedView;
 
 /**
  * Simple JavaBean domain object representing an owner.
@@ -46,6 +46,7 @@ import org.springframework.samples.petclinic.model.Person;
  */
 @Entity
 @Table(name = "owners")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ownerEntities")
 public class Owner extends Person {
 
 	@Column(name = "address")
@@ -62,8 +63,11 @@ public class Owner extends Person {
 	private String telephone;
 
 	@OneToMany(cascade = CascadeType.ALL, mappedBy = "owner")
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ownerPets")
 	private Set<Pet> pets;
 
+	private transient volatile SortedView<Pet> sortedPets;
+
 	public String getAddress() {
 		return this.address;
 	}
@@ -97,17 +101,22 @@ public class Owner extends Person {
 
 	protected void setPetsInternal(Set<Pet> pets) {
 		this.pets = pets;
+		this.sortedPets = null;
 	}
 
+	/**
+	 * Return the pets, sorted by name.
+	 */
 	public List<Pet> getPets() {
-		List<Pet> sortedPets = new ArrayList<>(getPetsInternal());
-		PropertyComparator.sort(sortedPets, new MutableSortDefinition("name", true, true));
-		return Collections.unmodifiableList(sortedPets);
+		SortedView<Pet> sortedPets = SortedView.of(this.sortedPets, getPetsInternal(), NamedEntity.NAME_ORDER);
+		this.sortedPets = sortedPets;
+		return sortedPets.getElements();
 	}
 
 	public void addPet(Pet pet) {
 		if (pet.isNew()) {
 			getPetsInternal().add(pet);
+			this.sortedPets = null;
 		}
 		pet.setOwner(this);
 	}
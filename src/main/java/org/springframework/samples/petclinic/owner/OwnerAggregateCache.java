@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.samples.petclinic.visit.Visit;
+import org.springframework.samples.petclinic.visit.VisitRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Cache of fully assembled {@link Owner} aggregates, with their pets and the visits of
+ * each pet, as shown on the owner details page.
+ * <p>
+ * Entries are keyed by owner id and {@link OwnerVersions version}, so that an aggregate
+ * is never served once a change to the owner is committed, on any node. Entries of
+ * previous versions are no longer read and expire with the cache.
+ * </p>
+ * <p>
+ * The version is read from the primary database, so the aggregate is loaded there too, in
+ * a read-write transaction: a read-only one may be routed to a read replica that has not
+ * caught up with that version yet, which would cache the previous state of the owner
+ * under the new version.
+ * </p>
+ */
+@Component
+class OwnerAggregateCache {
+
+	static final String CACHE_NAME = "owners";
+
+	private final OwnerRepository owners;
+
+	private final VisitRepository visits;
+
+	private final TransactionTemplate transactionTemplate;
+
+	OwnerAggregateCache(OwnerRepository owners, VisitRepository visits, PlatformTransactionManager transactionManager) {
+		this.owners = owners;
+		this.visits = visits;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Return the owner with the given id along with its pets and their visits. The
+	 * returned aggregate is shared and must not be modified.
+	 * @param ownerId the id of the owner
+	 * @param version the current version of the owner, read before calling this method
+	 */
+	@Cacheable(cacheNames = CACHE_NAME, key = "#ownerId + '-' + #version", unless = "#result == null")
+	public Optional<Owner> findById(int ownerId, long version) {
+		return this.transactionTemplate
+				.execute((status) -> this.owners.findById(ownerId).map(this::loadOwnerPetVisits));
+	}
+
+	private Owner loadOwnerPetVisits(Owner owner) {
+		Set<Integer> petIds = owner.getPetsInternal().stream().map(Pet::getId).collect(Collectors.toSet());
+		if (!petIds.isEmpty()) {
+			Map<Integer, List<Visit>> visitsByPet = this.visits.findByPetIdIn(petIds).stream()
+					.collect(Collectors.groupingBy(Visit::getPetId));
+			owner.getPetsInternal().forEach(
+					pet -> pet.setVisitsInternal(visitsByPet.getOrDefault(pet.getId(), Collections.emptyList())));
+		}
+		return owner;
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.Optional;
+
+/**
+ * Keyset position in the list of {@link Owner}s ordered by last name and id. Rendered as
+ * <code>id:lastName</code> so it can travel as a single request parameter between pages
+ * of the owner search.
+ */
+final class OwnerCursor {
+
+	/**
+	 * Position before any owner, used to seek the first page.
+	 */
+	static final OwnerCursor FIRST = new OwnerCursor("", 0);
+
+	private final String lastName;
+
+	private final int id;
+
+	private OwnerCursor(String lastName, int id) {
+		this.lastName = lastName;
+		this.id = id;
+	}
+
+	static OwnerCursor of(Owner owner) {
+		return new OwnerCursor(owner.getLastName(), owner.getId());
+	}
+
+	/**
+	 * Parse a cursor previously rendered with {@link #toString()}.
+	 * @param text the cursor text
+	 * @return the cursor, or empty if the text is not a valid cursor
+	 */
+	static Optional<OwnerCursor> parse(String text) {
+		int separator = text.indexOf(':');
+		if (separator <= 0) {
+			return Optional.empty();
+		}
+		try {
+			int id = Integer.parseInt(text.substring(0, separator));
+			return Optional.of(new OwnerCursor(text.substring(separator + 1), id));
+		}
+		catch (NumberFormatException ex) {
+			return Optional.empty();
+		}
+	}
+
+	String getLastName() {
+		return this.lastName;
+	}
+
+	int getId() {
+		return this.id;
+	}
+
+	@Override
+	public String toString() {
+		return this.id + ":" + this.lastName;
+	}
+
+}
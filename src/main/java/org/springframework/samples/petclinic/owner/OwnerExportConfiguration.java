@@ -0,0 +1,48 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.springframework.web.servlet.function.RouterFunctions.route;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.function.RouterFunction;
+
+/**
+ * Configuration of the {@link OwnerExporter}, and of the route exporting owners, pets and
+ * visits.
+ */
+@Configuration
+@EnableConfigurationProperties(OwnerExportProperties.class)
+public class OwnerExportConfiguration {
+
+	@Bean
+	public OwnerExporter ownerExporter(PlatformTransactionManager transactionManager,
+			EntityManagerFactory entityManagerFactory, OwnerExportProperties properties) {
+		return new OwnerExporter(transactionManager, entityManagerFactory, properties.getFetchSize());
+	}
+
+	@Bean
+	public RouterFunction<?> ownerExportRouterFunction(OwnerExporter exporter) {
+		OwnerExportHandler handler = new OwnerExportHandler(exporter);
+		return route().GET("/owners/export", handler::exportOwners).build();
+	}
+
+}
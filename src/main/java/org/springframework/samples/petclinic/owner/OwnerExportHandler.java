@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.springframework.web.servlet.function.ServerResponse.badRequest;
+import static org.springframework.web.servlet.function.ServerResponse.ok;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Handler function exporting all the owners, pets and visits, streamed to the response as
+ * they are read.
+ */
+class OwnerExportHandler {
+
+	private static final Log logger = LogFactory.getLog(OwnerExportHandler.class);
+
+	private final OwnerExporter exporter;
+
+	public OwnerExportHandler(OwnerExporter exporter) {
+		this.exporter = exporter;
+	}
+
+	/**
+	 * Export in the format named by the <code>format</code> parameter, either
+	 * <code>ndjson</code>, the default, or <code>csv</code>, encoded in UTF-8. Answers
+	 * with a 400 status when the format is unknown. The status and headers are sent
+	 * before the first row, so a failure during the export cuts the response short.
+	 */
+	public ServerResponse exportOwners(ServerRequest request) {
+		OwnerExporter.Format format;
+		try {
+			format = OwnerExporter.Format.of(request.param("format").orElse("ndjson"));
+		}
+		catch (IllegalArgumentException ex) {
+			return badRequest().contentType(MediaType.TEXT_PLAIN).body("Unknown export format, expected ndjson or csv");
+		}
+		String filename = "owners." + format.name().toLowerCase(Locale.ROOT);
+		return ok().contentType(new MediaType(format.getMediaType(), StandardCharsets.UTF_8))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+				.build((servletRequest, servletResponse) -> {
+					try {
+						Writer writer = new BufferedWriter(
+								new OutputStreamWriter(servletResponse.getOutputStream(), StandardCharsets.UTF_8));
+						long rows = this.exporter.export(format, writer);
+						logger.info("Exported " + rows + " rows as " + format);
+					}
+					catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+					return null;
+				});
+	}
+
+}
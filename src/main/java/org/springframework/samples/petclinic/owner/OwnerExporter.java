@@ -0,0 +1,229 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.http.MediaType;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.samples.petclinic.support.CsvWriter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Exports all the owners, with their pets and the visits of their pets, such as for the
+ * nightly extract of the billing system.
+ * <p>
+ * Each row of the export holds an owner, one of its pets and one of the visits of that
+ * pet, ordered by owner, pet and visit id. An owner without pets, or a pet without
+ * visits, gets a single row with empty pet or visit columns. The CSV format starts with a
+ * header naming the {@link #COLUMNS}, the NDJSON format writes one object per row, keyed
+ * by the same names.
+ * </p>
+ * <p>
+ * The rows are read with a forward-only cursor, in a read-only transaction, fetching a
+ * fixed number of rows at a time, and written out as they are read. They are projected on
+ * the exported columns rather than loaded as entities, so nothing is kept in the
+ * persistence context or the second-level cache and memory use does not grow with the
+ * number of rows.
+ * </p>
+ */
+public class OwnerExporter {
+
+	/**
+	 * Names of the exported columns.
+	 */
+	public static final List<String> COLUMNS = List.of("owner_id", "first_name", "last_name", "address", "city",
+			"telephone", "pet_id", "pet_name", "pet_birth_date", "pet_type", "visit_id", "visit_date",
+			"visit_description");
+
+	private static final String QUERY = "SELECT owner.id, owner.firstName, owner.lastName, owner.address, owner.city,"
+			+ " owner.telephone, pet.id, pet.name, pet.birthDate, type.name, visit.id, visit.date, visit.description"
+			+ " FROM Owner owner LEFT JOIN owner.pets pet LEFT JOIN pet.type type"
+			+ " LEFT JOIN Visit visit ON visit.petId = pet.id ORDER BY owner.id, pet.id, visit.id";
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final EntityManager entityManager;
+
+	private final int fetchSize;
+
+	public OwnerExporter(PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+			int fetchSize) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Write all the owners, pets and visits in the given format. The writer is flushed
+	 * but not closed.
+	 * @param format the format of the export
+	 * @param output the writer to write the export to
+	 * @return the number of rows written
+	 * @throws IOException if the output cannot be written
+	 */
+	public long export(Format format, Writer output) throws IOException {
+		try {
+			return this.transactionTemplate.execute((status) -> {
+				try (RowWriter rows = format.createWriter(output);
+						ScrollableResults results = this.entityManager.unwrap(Session.class)
+								.createQuery(QUERY, Object[].class).setReadOnly(true).setFetchSize(this.fetchSize)
+								.scroll(ScrollMode.FORWARD_ONLY)) {
+					long count = 0;
+					while (results.next()) {
+						rows.write(results.get());
+						count++;
+					}
+					return count;
+				}
+				catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	/**
+	 * Formats of the export.
+	 */
+	public enum Format {
+
+		/**
+		 * Comma separated values, with a header.
+		 */
+		CSV(new MediaType("text", "csv")) {
+
+			@Override
+			RowWriter createWriter(Writer output) throws IOException {
+				CsvWriter csv = new CsvWriter(output);
+				csv.writeRecord(COLUMNS.toArray());
+				return new RowWriter() {
+
+					@Override
+					public void write(Object[] row) throws IOException {
+						csv.writeRecord(row);
+					}
+
+					@Override
+					public void close() throws IOException {
+						csv.flush();
+					}
+
+				};
+			}
+
+		},
+
+		/**
+		 * Newline delimited JSON objects, one per line.
+		 */
+		NDJSON(new MediaType("application", "x-ndjson")) {
+
+			@Override
+			RowWriter createWriter(Writer output) throws IOException {
+				JsonGenerator json = JSON_FACTORY.createGenerator(output);
+				return new RowWriter() {
+
+					@Override
+					public void write(Object[] row) throws IOException {
+						json.writeStartObject();
+						for (int i = 0; i < row.length; i++) {
+							json.writeFieldName(COLUMNS.get(i));
+							if (row[i] instanceof Integer) {
+								json.writeNumber((Integer) row[i]);
+							}
+							else if (row[i] != null) {
+								json.writeString(row[i].toString());
+							}
+							else {
+								json.writeNull();
+							}
+						}
+						json.writeEndObject();
+						json.writeRaw('\n');
+					}
+
+					@Override
+					public void close() throws IOException {
+						json.close();
+					}
+
+				};
+			}
+
+		};
+
+		private static final JsonFactory JSON_FACTORY = new JsonFactory().setRootValueSeparator(null)
+				.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+		private final MediaType mediaType;
+
+		Format(MediaType mediaType) {
+			this.mediaType = mediaType;
+		}
+
+		public MediaType getMediaType() {
+			return this.mediaType;
+		}
+
+		/**
+		 * Return the format with the given case insensitive name.
+		 * @throws IllegalArgumentException if there is no such format
+		 */
+		public static Format of(String name) {
+			return valueOf(name.toUpperCase(Locale.ROOT));
+		}
+
+		abstract RowWriter createWriter(Writer output) throws IOException;
+
+	}
+
+	/**
+	 * Writes the rows of the export, and flushes them when closed.
+	 */
+	interface RowWriter extends AutoCloseable {
+
+		/**
+		 * Write a row, its values being in the order of the
+		 * {@link OwnerExporter#COLUMNS}, with {@link LocalDate}s written in ISO format.
+		 */
+		void write(Object[] row) throws IOException;
+
+		@Override
+		void close() throws IOException;
+
+	}
+
+}
@@ -15,16 +15,28 @@
  */
 package org.springframework.samples.petclinic.owner;
 
+import static org.springframework.web.servlet.function.ServerResponse.badRequest;
 import static org.springframework.web.servlet.function.ServerResponse.notFound;
 import static org.springframework.web.servlet.function.ServerResponse.ok;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.samples.petclinic.support.ConditionalRequests;
 import org.springframework.samples.petclinic.support.ServerResponseSupport;
-import org.springframework.samples.petclinic.visit.VisitRepository;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.Validator;
 import org.springframework.web.bind.ServletRequestDataBinder;
@@ -44,16 +56,36 @@ class OwnerHandler {
 
 	private static final String VIEWS_OWNER_CREATE_OR_UPDATE_FORM = "owners/createOrUpdateOwnerForm";
 
+	/**
+	 * Maximum number of owners shown in a single page of search results.
+	 */
+	static final int PAGE_SIZE = 20;
+
+	/**
+	 * Default and maximum number of last names suggested while typing.
+	 */
+	static final int DEFAULT_SUGGESTIONS = 10;
+
+	static final int MAX_SUGGESTIONS = 50;
+
 	private final OwnerRepository owners;
 
-	private final VisitRepository visits;
+	@Nullable
+	private final OwnerLastNameIndex lastNameIndex;
+
+	private final OwnerVersions versions;
+
+	private final OwnerAggregateCache aggregates;
 
 	private final ServerResponseSupport<Owner> support;
 
-	public OwnerHandler(OwnerRepository clinicService, VisitRepository visits, Validator validator,
+	public OwnerHandler(OwnerRepository clinicService, @Nullable OwnerLastNameIndex lastNameIndex,
+			OwnerVersions versions, OwnerAggregateCache aggregates, Validator validator,
 			ConversionService conversionService) {
 		this.owners = clinicService;
-		this.visits = visits;
+		this.lastNameIndex = lastNameIndex;
+		this.versions = versions;
+		this.aggregates = aggregates;
 		this.support = new ServerResponseSupport<>(validator, conversionService);
 	}
 
@@ -102,24 +134,115 @@ class OwnerHandler {
 			owner.setLastName(""); // empty string signifies broadest possible search
 		}
 
-		// find owners by last name
-		Collection<Owner> results = this.owners.findByLastName(owner.getLastName());
-		if (results.isEmpty()) {
+		// find owners by last name, one keyset page at a time
+		Optional<OwnerCursor> after = request.param("after").flatMap(OwnerCursor::parse);
+		Optional<OwnerCursor> before = request.param("before").flatMap(OwnerCursor::parse);
+		boolean firstPage = after.isEmpty() && before.isEmpty();
+		List<Integer> ids;
+		boolean hasPrevious;
+		boolean hasNext;
+		if (before.isPresent()) {
+			ids = new ArrayList<>(findIdsBefore(owner.getLastName(), before.get(), PAGE_SIZE + 1));
+			hasPrevious = trimToPageSize(ids);
+			hasNext = true;
+			Collections.reverse(ids);
+		}
+		else {
+			ids = new ArrayList<>(findIdsAfter(owner.getLastName(), after.orElse(OwnerCursor.FIRST), PAGE_SIZE + 1));
+			hasPrevious = after.isPresent();
+			hasNext = trimToPageSize(ids);
+		}
+
+		if (firstPage && ids.isEmpty()) {
 			// no owners found
 			BindingResult result = binder.getBindingResult();
 			result.rejectValue("lastName", "notFound", "not found");
 			return support.view(result, "owners/findOwners");
 		}
-		else if (results.size() == 1) {
+		else if (firstPage && ids.size() == 1 && !hasNext) {
 			// 1 owner found
-			return support.redirectTo(results.iterator().next(), "/owners");
+			return support.redirectTo(ids.get(0), "/owners");
 		}
 		else {
 			// multiple owners found
-			return ok().render("owners/ownersList", Map.of("selections", results));
+			List<Owner> results = findOwnersInOrder(ids);
+			Map<String, Object> model = new HashMap<>();
+			model.put("selections", results);
+			model.put("lastName", owner.getLastName());
+			if (hasPrevious && !results.isEmpty()) {
+				model.put("previousCursor", OwnerCursor.of(results.get(0)));
+			}
+			if (hasNext && !results.isEmpty()) {
+				model.put("nextCursor", OwnerCursor.of(results.get(results.size() - 1)));
+			}
+			return ok().render("owners/ownersList", model);
 		}
 	}
 
+	/**
+	 * Suggest the distinct last names starting with the <code>prefix</code> parameter,
+	 * for type-ahead in the find owners form. The <code>limit</code> parameter is clamped
+	 * between 1 and {@link #MAX_SUGGESTIONS}, a limit that is not a number gets a 400
+	 * status.
+	 */
+	public ServerResponse findLastNames(ServerRequest request) {
+		String prefix = request.param("prefix").orElse("");
+		int limit;
+		try {
+			limit = request.param("limit").map(Integer::parseInt).orElse(DEFAULT_SUGGESTIONS);
+		}
+		catch (NumberFormatException ex) {
+			return badRequest().contentType(MediaType.TEXT_PLAIN).body("The limit must be a number");
+		}
+		limit = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+		List<String> lastNames;
+		if (this.lastNameIndex != null && this.lastNameIndex.isReady()) {
+			lastNames = this.lastNameIndex.findLastNames(prefix, limit);
+		}
+		else {
+			lastNames = this.owners.findLastNames(prefix, PageRequest.of(0, limit));
+		}
+		return ok().contentType(MediaType.APPLICATION_JSON).body(lastNames);
+	}
+
+	private List<Integer> findIdsAfter(String lastName, OwnerCursor after, int limit) {
+		if (this.lastNameIndex != null && this.lastNameIndex.isReady()) {
+			return this.lastNameIndex.findIdsAfter(lastName, after.getLastName(), after.getId(), limit);
+		}
+		return this.owners.findIdsByLastNameAfter(lastName, after.getLastName(), after.getId(),
+				PageRequest.of(0, limit));
+	}
+
+	private List<Integer> findIdsBefore(String lastName, OwnerCursor before, int limit) {
+		if (this.lastNameIndex != null && this.lastNameIndex.isReady()) {
+			return this.lastNameIndex.findIdsBefore(lastName, before.getLastName(), before.getId(), limit);
+		}
+		return this.owners.findIdsByLastNameBefore(lastName, before.getLastName(), before.getId(),
+				PageRequest.of(0, limit));
+	}
+
+	/**
+	 * Drop the extra id fetched to find out whether there are more results beyond the
+	 * current page.
+	 * @return whether there are more results beyond the current page
+	 */
+	private boolean trimToPageSize(List<Integer> ids) {
+		if (ids.size() > PAGE_SIZE) {
+			ids.subList(PAGE_SIZE, ids.size()).clear();
+			return true;
+		}
+		return false;
+	}
+
+	private List<Owner> findOwnersInOrder(List<Integer> ids) {
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Map<Integer, Owner> byId = this.owners.findByIdIn(ids).stream()
+				.collect(Collectors.toMap(Owner::getId, Function.identity()));
+		return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+
 	public ServerResponse initUpdateOwnerForm(ServerRequest request) {
 		return owners.findById(ownerIdParam(request))
 				.map(owner -> support.view(owner, "owner", VIEWS_OWNER_CREATE_OR_UPDATE_FORM))
@@ -127,26 +250,24 @@ class OwnerHandler {
 	}
 
 	/**
-	 * Custom handler for displaying an owner.
+	 * Custom handler for displaying an owner. Answers with 304 Not Modified when the
+	 * client already has the current version of the page.
 	 * @param ownerId the ID of the owner to display
 	 * @return a ModelMap with the model attributes for the view
 	 */
 	public ServerResponse showOwner(ServerRequest request) {
-		return owners.findById(ownerIdParam(request)).map(this::loadOwnerPetVisits)
-				.map(owner -> support.view(owner, "owner", "owners/ownerDetails")).orElseGet(notFound()::build);
+		int ownerId = ownerIdParam(request);
+		long version = versions.getVersion(ownerId);
+		String eTag = versions.eTag(version);
+		if (ConditionalRequests.isNotModified(request, eTag)) {
+			return ConditionalRequests.notModified(eTag);
+		}
+		return aggregates.findById(ownerId, version).map(owner -> ok().eTag(eTag).cacheControl(CacheControl.noCache())
+				.render("owners/ownerDetails", Map.of("owner", owner))).orElseGet(notFound()::build);
 	}
 
 	private int ownerIdParam(ServerRequest request) {
 		return Integer.parseInt(request.pathVariable("ownerId"));
 	}
 
-	private Owner loadOwnerPetVisits(Owner owner) {
-		owner.getPets().stream().forEach(this::loadPetVisits);
-		return owner;
-	}
-
-	private void loadPetVisits(Pet pet) {
-		pet.setVisitsInternal(visits.findByPetId(pet.getId()));
-	}
-
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.springframework.web.servlet.function.RouterFunctions.route;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.model.NamedEntityRegistry;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.validation.Validator;
+import org.springframework.web.servlet.function.RouterFunction;
+
+/**
+ * Configuration of the {@link OwnerImporter}, and of the route importing owners from a
+ * CSV file.
+ */
+@Configuration
+@EnableConfigurationProperties(OwnerImportProperties.class)
+public class OwnerImportConfiguration {
+
+	@Bean
+	public OwnerImporter ownerImporter(OwnerRepository owners, NamedEntityRegistry<PetType> petTypes,
+			Validator validator, PlatformTransactionManager transactionManager,
+			EntityManagerFactory entityManagerFactory, OwnerImportProperties properties) {
+		return new OwnerImporter(owners, petTypes, validator, transactionManager, entityManagerFactory,
+				properties.getChunkSize(), properties.getMaxReportedRejections());
+	}
+
+	@Bean
+	public RouterFunction<?> ownerImportRouterFunction(OwnerImporter importer) {
+		OwnerImportHandler handler = new OwnerImportHandler(importer);
+		return route().POST("/owners/import", handler::importOwners).build();
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.springframework.web.servlet.function.ServerResponse.badRequest;
+import static org.springframework.web.servlet.function.ServerResponse.ok;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Handler function importing owners and their pets from the CSV file sent as the request
+ * body.
+ */
+class OwnerImportHandler {
+
+	private final OwnerImporter importer;
+
+	public OwnerImportHandler(OwnerImporter importer) {
+		this.importer = importer;
+	}
+
+	/**
+	 * Import the CSV file streamed in the request body, read with the charset of the
+	 * content type or UTF-8. Answers with the {@link OwnerImportReport}, with a 400
+	 * status when the file could not be read to the end.
+	 */
+	public ServerResponse importOwners(ServerRequest request) throws IOException {
+		Charset charset = request.headers().contentType().map(MediaType::getCharset).filter(Objects::nonNull)
+				.orElse(StandardCharsets.UTF_8);
+		OwnerImportReport report;
+		try (Reader reader = new InputStreamReader(request.servletRequest().getInputStream(), charset)) {
+			report = this.importer.importOwners(reader);
+		}
+		catch (IllegalArgumentException ex) {
+			return badRequest().contentType(MediaType.TEXT_PLAIN).body(ex.getMessage());
+		}
+		return (report.getError() != null ? badRequest() : ok()).contentType(MediaType.APPLICATION_JSON).body(report);
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the {@link OwnerImporter}, bound from the
+ * <code>petclinic.owners.import</code> properties.
+ */
+@ConfigurationProperties("petclinic.owners.import")
+public class OwnerImportProperties {
+
+	/**
+	 * Number of owners written per transaction, along with their pets.
+	 */
+	private int chunkSize = 500;
+
+	/**
+	 * Maximum number of rejected rows listed in the import report, the others are only
+	 * counted.
+	 */
+	private int maxReportedRejections = 100;
+
+	public int getChunkSize() {
+		return this.chunkSize;
+	}
+
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	public int getMaxReportedRejections() {
+		return this.maxReportedRejections;
+	}
+
+	public void setMaxReportedRejections(int maxReportedRejections) {
+		this.maxReportedRejections = maxReportedRejections;
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Outcome of an {@link OwnerImporter} run: how many rows were read, how many owners and
+ * pets were imported, and which rows were rejected and why.
+ */
+public class OwnerImportReport {
+
+	private final int maxReportedRejections;
+
+	private long rows;
+
+	private long owners;
+
+	private long pets;
+
+	private long rejectedRows;
+
+	private final List<Rejection> rejections = new ArrayList<>();
+
+	@Nullable
+	private String error;
+
+	OwnerImportReport(int maxReportedRejections) {
+		this.maxReportedRejections = maxReportedRejections;
+	}
+
+	/**
+	 * Return the number of rows read, not counting the header and blank lines.
+	 */
+	public long getRows() {
+		return this.rows;
+	}
+
+	/**
+	 * Return the number of owners imported.
+	 */
+	public long getOwners() {
+		return this.owners;
+	}
+
+	/**
+	 * Return the number of pets imported.
+	 */
+	public long getPets() {
+		return this.pets;
+	}
+
+	/**
+	 * Return the number of rows rejected, in whole or in part.
+	 */
+	public long getRejectedRows() {
+		return this.rejectedRows;
+	}
+
+	/**
+	 * Return the first rejected rows, in the order they were read.
+	 */
+	public List<Rejection> getRejections() {
+		return this.rejections;
+	}
+
+	/**
+	 * Return why the rest of the file could not be read, if the import stopped before the
+	 * end of the file.
+	 */
+	@Nullable
+	public String getError() {
+		return this.error;
+	}
+
+	void rowRead() {
+		this.rows++;
+	}
+
+	void imported(Owner owner) {
+		this.owners++;
+		this.pets += owner.getPetsInternal().size();
+	}
+
+	void rejected(long line, List<String> errors) {
+		this.rejectedRows++;
+		if (this.rejections.size() < this.maxReportedRejections) {
+			this.rejections.add(new Rejection(line, errors));
+		}
+	}
+
+	void failed(String error) {
+		this.error = error;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("imported %d owners and %d pets from %d rows, rejected %d rows", this.owners, this.pets,
+				this.rows, this.rejectedRows);
+	}
+
+	/**
+	 * A row rejected by the import.
+	 */
+	public static class Rejection {
+
+		private final long line;
+
+		private final List<String> errors;
+
+		Rejection(long line, List<String> errors) {
+			this.line = line;
+			this.errors = errors;
+		}
+
+		/**
+		 * Return the line on which the row starts, counting from one.
+		 */
+		public long getLine() {
+			return this.line;
+		}
+
+		/**
+		 * Return why the row was rejected, one message per column.
+		 */
+		public List<String> getErrors() {
+			return this.errors;
+		}
+
+		@Override
+		public String toString() {
+			return "line " + this.line + ": " + String.join(", ", this.errors);
+		}
+
+	}
+
+}
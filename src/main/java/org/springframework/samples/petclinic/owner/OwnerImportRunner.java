@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports the CSV files given as command line arguments with the {@link OwnerImporter}.
+ * Runs on startup when the <code>import-owners</code> profile is active.
+ */
+@Component
+@Profile("import-owners")
+class OwnerImportRunner implements ApplicationRunner {
+
+	private static final Log logger = LogFactory.getLog(OwnerImportRunner.class);
+
+	private final OwnerImporter importer;
+
+	OwnerImportRunner(OwnerImporter importer) {
+		this.importer = importer;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		if (args.getNonOptionArgs().isEmpty()) {
+			logger.warn("No file to import, pass the CSV files as arguments");
+		}
+		for (String file : args.getNonOptionArgs()) {
+			logger.info("Importing owners from " + file);
+			OwnerImportReport report;
+			try (Reader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+				report = this.importer.importOwners(reader);
+			}
+			report.getRejections().forEach((rejection) -> logger.warn("Rejected " + rejection));
+			if (report.getRejections().size() < report.getRejectedRows()) {
+				logger.warn((report.getRejectedRows() - report.getRejections().size()) + " more rows rejected");
+			}
+			if (report.getError() != null) {
+				logger.error("Could not read " + file + " to the end: " + report.getError());
+			}
+			logger.info("Done importing owners from " + file + ", " + report);
+		}
+	}
+
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.dao.DataAccessException;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.format.support.FormattingConversionService;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.samples.petclinic.model.NamedEntityRegistry;
+import org.springframework.samples.petclinic.support.CsvReader;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.DataBinder;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.validation.Validator;
+
+/**
+ * Imports owners and their pets from a CSV file, such as the list of customers of a
+ * clinic being onboarded.
+ * <p>
+ * The file starts with a header naming the columns, in any order:
+ * <code>first_name</code>, <code>last_name</code>, <code>address</code>,
+ * <code>city</code> and <code>telephone</code> for the owner, and optionally
+ * <code>pet_name</code>, <code>pet_birth_date</code> (as <code>yyyy-MM-dd</code>) and
+ * <code>pet_type</code> for one of its pets. Consecutive rows with the same owner columns
+ * add pets to the same owner, a row with empty pet columns imports an owner without pets.
+ * </p>
+ * <p>
+ * Rows are read one at a time and validated like the owner and pet forms. Invalid rows
+ * are rejected and reported, without stopping the import. Valid owners are written in
+ * chunks of a fixed size, one transaction per chunk, and the persistence context is
+ * cleared after each chunk so that memory use does not grow with the size of the file.
+ * When a chunk cannot be written, its owners are written again one at a time, so that
+ * only those the database refuses are rejected.
+ * </p>
+ */
+public class OwnerImporter {
+
+	private static final Log logger = LogFactory.getLog(OwnerImporter.class);
+
+	/**
+	 * Owner columns, mapped to the properties they are bound to.
+	 */
+	private static final Map<String, String> OWNER_COLUMNS = columns("first_name", "firstName", "last_name", "lastName",
+			"address", "address", "city", "city", "telephone", "telephone");
+
+	/**
+	 * Pet columns, mapped to the properties they are bound to.
+	 */
+	private static final Map<String, String> PET_COLUMNS = columns("pet_name", "name", "pet_birth_date", "birthDate",
+			"pet_type", "type");
+
+	private final OwnerRepository owners;
+
+	private final Validator validator;
+
+	private final Validator petValidator = new PetValidator();
+
+	private final FormattingConversionService conversionService = new DefaultFormattingConversionService();
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final EntityManager entityManager;
+
+	private final int chunkSize;
+
+	private final int maxReportedRejections;
+
+	public OwnerImporter(OwnerRepository owners, NamedEntityRegistry<PetType> petTypes, Validator validator,
+			PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory, int chunkSize,
+			int maxReportedRejections) {
+		this.owners = owners;
+		this.validator = validator;
+		this.conversionService.addFormatter(new PetTypeFormatter(petTypes));
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+		this.chunkSize = chunkSize;
+		this.maxReportedRejections = maxReportedRejections;
+	}
+
+	/**
+	 * Import the owners and pets of the given CSV file. The reader is not closed.
+	 * @param input the CSV file
+	 * @return the outcome of the import
+	 * @throws IllegalArgumentException if the file has no header, or if the header lacks
+	 * some of the owner columns
+	 */
+	public OwnerImportReport importOwners(Reader input) {
+		CsvReader csv = new CsvReader(input);
+		OwnerImportReport report = new OwnerImportReport(this.maxReportedRejections);
+		List<PendingOwner> chunk = new ArrayList<>(this.chunkSize);
+		try {
+			Header header = new Header(csv.readRecord());
+			PendingOwner current = null;
+			for (List<String> record = csv.readRecord(); record != null; record = csv.readRecord()) {
+				if (record.size() == 1 && record.get(0).isBlank()) {
+					continue;
+				}
+				long line = csv.getLineNumber();
+				report.rowRead();
+				Map<String, String> ownerValues = header.values(record, OWNER_COLUMNS);
+				if (current == null || !current.values.equals(ownerValues)) {
+					if (chunk.size() >= this.chunkSize) {
+						save(chunk, report);
+					}
+					BindingResult result = bind(new Owner(), "owner", ownerValues, this.validator);
+					if (result.hasErrors()) {
+						current = null;
+						report.rejected(line, messages(result, OWNER_COLUMNS));
+						continue;
+					}
+					current = new PendingOwner(line, ownerValues, (Owner) result.getTarget());
+					chunk.add(current);
+				}
+				Map<String, String> petValues = header.values(record, PET_COLUMNS);
+				if (petValues.values().stream().anyMatch(StringUtils::hasLength)) {
+					BindingResult result = bind(new Pet(), "pet", petValues, this.petValidator);
+					Pet pet = (Pet) result.getTarget();
+					if (pet.getName() != null && current.owner.getPet(pet.getName()).isPresent()) {
+						result.rejectValue("name", "duplicate", "already exists");
+					}
+					if (result.hasErrors()) {
+						report.rejected(line, messages(result, PET_COLUMNS));
+					}
+					else {
+						current.owner.addPet(pet);
+					}
+				}
+			}
+		}
+		catch (IOException ex) {
+			report.failed(ex.getMessage());
+			logger.warn("Stopped importing owners: " + ex.getMessage());
+		}
+		save(chunk, report);
+		return report;
+	}
+
+	private BindingResult bind(Object target, String objectName, Map<String, String> values, Validator validator) {
+		DataBinder binder = new DataBinder(target, objectName);
+		binder.setConversionService(this.conversionService);
+		binder.setValidator(validator);
+		binder.bind(new MutablePropertyValues(values));
+		binder.validate();
+		return binder.getBindingResult();
+	}
+
+	/**
+	 * Write the given owners, along with their pets, and clear the chunk.
+	 */
+	private void save(List<PendingOwner> chunk, OwnerImportReport report) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+		try {
+			this.transactionTemplate.executeWithoutResult((status) -> chunk.forEach((pending) -> save(pending.owner)));
+			chunk.forEach((pending) -> report.imported(pending.owner));
+		}
+		catch (DataAccessException | TransactionException ex) {
+			this.entityManager.clear();
+			chunk.forEach((pending) -> saveAlone(pending, report));
+		}
+		finally {
+			this.entityManager.clear();
+			chunk.clear();
+		}
+		logger.info("Importing owners, " + report);
+	}
+
+	private void saveAlone(PendingOwner pending, OwnerImportReport report) {
+		// start over from transient entities, the ids allocated by the rolled back
+		// transaction are left unused
+		pending.owner.setId(null);
+		pending.owner.setPetsInternal(new HashSet<>(pending.owner.getPetsInternal()));
+		pending.owner.getPetsInternal().forEach((pet) -> pet.setId(null));
+		try {
+			this.transactionTemplate.executeWithoutResult((status) -> save(pending.owner));
+			report.imported(pending.owner);
+		}
+		catch (DataAccessException | TransactionException ex) {
+			report.rejected(pending.line, List.of(String.valueOf(ex.getMostSpecificCause().getMessage())));
+		}
+		finally {
+			this.entityManager.clear();
+		}
+	}
+
+	private void save(Owner owner) {
+		this.owners.save(owner);
+	}
+
+	private static List<String> messages(BindingResult result, Map<String, String> columns) {
+		Map<String, String> columnsByProperty = new HashMap<>();
+		columns.forEach((column, property) -> columnsByProperty.put(property, column));
+		List<String> messages = new ArrayList<>();
+		for (ObjectError error : result.getAllErrors()) {
+			if (error instanceof FieldError) {
+				FieldError fieldError = (FieldError) error;
+				String column = columnsByProperty.getOrDefault(fieldError.getField(), fieldError.getField());
+				messages.add(column + ": " + (fieldError.isBindingFailure()
+						? "invalid value '" + fieldError.getRejectedValue() + "'" : fieldError.getDefaultMessage()));
+			}
+			else {
+				messages.add(error.getDefaultMessage());
+			}
+		}
+		return messages;
+	}
+
+	private static Map<String, String> columns(String... columnsAndProperties) {
+		Map<String, String> columns = new LinkedHashMap<>();
+		for (int i = 0; i < columnsAndProperties.length; i += 2) {
+			columns.put(columnsAndProperties[i], columnsAndProperties[i + 1]);
+		}
+		return columns;
+	}
+
+	/**
+	 * Positions of the known columns in the rows of the file.
+	 */
+	private static final class Header {
+
+		private final Map<String, Integer> positions = new HashMap<>();
+
+		Header(@Nullable List<String> names) {
+			if (names == null) {
+				throw new IllegalArgumentException("The file is empty, a header is expected");
+			}
+			for (int i = 0; i < names.size(); i++) {
+				this.positions.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+			}
+			List<String> missing = new ArrayList<>(OWNER_COLUMNS.keySet());
+			missing.removeAll(this.positions.keySet());
+			if (!missing.isEmpty()) {
+				throw new IllegalArgumentException("The header lacks the " + missing + " columns");
+			}
+		}
+
+		/**
+		 * Return the trimmed values of the given columns, keyed by property, leaving out
+		 * the columns that are not in the file.
+		 */
+		Map<String, String> values(List<String> record, Map<String, String> columns) {
+			Map<String, String> values = new HashMap<>();
+			columns.forEach((column, property) -> {
+				Integer position = this.positions.get(column);
+				if (position != null) {
+					values.put(property, (position < record.size() ? record.get(position).trim() : ""));
+				}
+			});
+			return values;
+		}
+
+	}
+
+	/**
+	 * An owner waiting to be written, with the owner columns it was read from.
+	 */
+	private static final class PendingOwner {
+
+		final long line;
+
+		final Map<String, String> values;
+
+		final Owner owner;
+
+		PendingOwner(long line, Map<String, String> values, Owner owner) {
+			this.line = line;
+			this.values = values;
+			this.owner = owner;
+		}
+
+	}
+
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.samples.petclinic.model.EntitySavedEvent;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory index of the owners' last names, used to find the owners whose last name
+ * starts with a given prefix without querying the database.
+ * <p>
+ * Owners are kept in sorted arrays, ordered by case-insensitive last name and then by id,
+ * and looked up with binary search. The arrays are loaded once the application is ready
+ * and are never modified in place: saved owners are buffered and merged into a new copy
+ * of the arrays the next time the index is read, or as soon as enough of them pile up.
+ * </p>
+ * <p>
+ * Only the owners saved on this node are seen as they are saved, so the index is reloaded
+ * from the database once the refresh interval has elapsed, by the first read after it.
+ * </p>
+ */
+class OwnerLastNameIndex {
+
+	private static final int MAX_PENDING_CHANGES = 1024;
+
+	private final OwnerRepository owners;
+
+	private final long refreshIntervalNanos;
+
+	private final LongSupplier clock;
+
+	private final Map<Integer, String> pending = new ConcurrentHashMap<>();
+
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+
+	@Nullable
+	private volatile Entries entries;
+
+	private volatile long loadedAt;
+
+	OwnerLastNameIndex(OwnerRepository owners, Duration refreshInterval) {
+		this(owners, refreshInterval, System::nanoTime);
+	}
+
+	OwnerLastNameIndex(OwnerRepository owners, Duration refreshInterval, LongSupplier clock) {
+		this.owners = owners;
+		this.refreshIntervalNanos = refreshInterval.toNanos();
+		this.clock = clock;
+	}
+
+	/**
+	 * Load the whole index from the database, replacing the current contents.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void rebuild() {
+		long loadedAt = this.clock.getAsLong();
+		List<Object[]> rows = this.owners.findAllLastNames();
+		Map<Integer, String> lastNames = new HashMap<>(rows.size() * 4 / 3 + 1);
+		for (Object[] row : rows) {
+			lastNames.put((Integer) row[0], (String) row[1]);
+		}
+		this.entries = Entries.EMPTY.merge(lastNames);
+		this.loadedAt = loadedAt;
+	}
+
+	/**
+	 * Keep the index up to date with the owners saved through the
+	 * {@link OwnerRepository}.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void ownerSaved(EntitySavedEvent<Owner> event) {
+		Owner owner = event.getEntity();
+		if (owner.getId() != null && owner.getLastName() != null) {
+			this.pending.put(owner.getId(), owner.getLastName());
+			if (this.pending.size() >= MAX_PENDING_CHANGES) {
+				applyPendingChanges();
+			}
+		}
+	}
+
+	/**
+	 * Whether the index has been loaded and can be queried.
+	 */
+	public boolean isReady() {
+		return this.entries != null;
+	}
+
+	/**
+	 * Find the ids of the owners whose last name starts with the given prefix and that
+	 * sort after the given keyset position.
+	 * @see OwnerRepository#findIdsByLastNameAfter
+	 */
+	public List<Integer> findIdsAfter(String prefix, String afterLastName, int afterId, int limit) {
+		Entries entries = current();
+		String key = normalize(prefix);
+		int from = Math.max(entries.firstAtOrAfter(key, Integer.MIN_VALUE),
+				entries.firstAfter(normalize(afterLastName), afterId));
+		int to = entries.firstAtOrAfter(upperBound(key), Integer.MIN_VALUE);
+		List<Integer> ids = new ArrayList<>(Math.min(limit, Math.max(to - from, 0)));
+		for (int i = from; i < to && ids.size() < limit; i++) {
+			ids.add(entries.ids[i]);
+		}
+		return ids;
+	}
+
+	/**
+	 * Find the ids of the owners whose last name starts with the given prefix and that
+	 * sort before the given keyset position, in <i>descending</i> order.
+	 * @see OwnerRepository#findIdsByLastNameBefore
+	 */
+	public List<Integer> findIdsBefore(String prefix, String beforeLastName, int beforeId, int limit) {
+		Entries entries = current();
+		String key = normalize(prefix);
+		int from = entries.firstAtOrAfter(key, Integer.MIN_VALUE);
+		int to = Math.min(entries.firstAtOrAfter(upperBound(key), Integer.MIN_VALUE),
+				entries.firstAtOrAfter(normalize(beforeLastName), beforeId));
+		List<Integer> ids = new ArrayList<>(Math.min(limit, Math.max(to - from, 0)));
+		for (int i = to - 1; i >= from && ids.size() < limit; i--) {
+			ids.add(entries.ids[i]);
+		}
+		return ids;
+	}
+
+	/**
+	 * Find the distinct last names starting with the given prefix, in alphabetical order,
+	 * ignoring case.
+	 * @param prefix the last name prefix
+	 * @param limit the maximum number of last names to return
+	 * @see OwnerRepository#findLastNames
+	 */
+	public List<String> findLastNames(String prefix, int limit) {
+		Entries entries = current();
+		String key = normalize(prefix);
+		int to = entries.firstAtOrAfter(upperBound(key), Integer.MIN_VALUE);
+		List<String> lastNames = new ArrayList<>(Math.min(limit, 16));
+		int i = entries.firstAtOrAfter(key, Integer.MIN_VALUE);
+		while (i < to && lastNames.size() < limit) {
+			lastNames.add(entries.names[i]);
+			// skip the other owners sharing the same last name
+			i = entries.firstAfter(entries.keys[i], Integer.MAX_VALUE);
+		}
+		return lastNames;
+	}
+
+	private Entries current() {
+		if (this.entries != null && this.clock.getAsLong() - this.loadedAt >= this.refreshIntervalNanos
+				&& this.refreshing.compareAndSet(false, true)) {
+			try {
+				rebuild();
+			}
+			finally {
+				this.refreshing.set(false);
+			}
+		}
+		if (!this.pending.isEmpty()) {
+			applyPendingChanges();
+		}
+		Entries entries = this.entries;
+		if (entries == null) {
+			throw new IllegalStateException("Owner last name index has not been loaded yet");
+		}
+		return entries;
+	}
+
+	private synchronized void applyPendingChanges() {
+		Entries entries = this.entries;
+		if (entries == null || this.pending.isEmpty()) {
+			return;
+		}
+		Map<Integer, String> changes = new HashMap<>(this.pending);
+		this.entries = entries.merge(changes);
+		// remove(id, name): an owner saved again since the copy stays pending
+		changes.forEach(this.pending::remove);
+	}
+
+	private static String normalize(String lastName) {
+		return lastName.toLowerCase(Locale.ROOT);
+	}
+
+	private static String upperBound(String prefix) {
+		return prefix + Character.MAX_VALUE;
+	}
+
+	/**
+	 * Immutable snapshot of the index: parallel arrays sorted by key and id, where the
+	 * key is the normalized form of the last name as entered.
+	 */
+	private static final class Entries {
+
+		static final Entries EMPTY = new Entries(new String[0], new String[0], new int[0]);
+
+		final String[] keys;
+
+		final String[] names;
+
+		final int[] ids;
+
+		Entries(String[] keys, String[] names, int[] ids) {
+			this.keys = keys;
+			this.names = names;
+			this.ids = ids;
+		}
+
+		int size() {
+			return this.ids.length;
+		}
+
+		int compare(int index, String key, int id) {
+			int result = this.keys[index].compareTo(key);
+			return (result != 0 ? result : Integer.compare(this.ids[index], id));
+		}
+
+		/**
+		 * Position of the first entry greater than or equal to the given key and id.
+		 */
+		int firstAtOrAfter(String key, int id) {
+			int low = 0;
+			int high = size();
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (compare(mid, key, id) < 0) {
+					low = mid + 1;
+				}
+				else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * Position of the first entry strictly greater than the given key and id.
+		 */
+		int firstAfter(String key, int id) {
+			int low = 0;
+			int high = size();
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (compare(mid, key, id) <= 0) {
+					low = mid + 1;
+				}
+				else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * Create a new snapshot with the given last names, replacing any existing entry
+		 * for the same ids.
+		 */
+		Entries merge(Map<Integer, String> lastNames) {
+			List<Entry> changes = new ArrayList<>(lastNames.size());
+			Map<String, Entry> distinct = new HashMap<>();
+			lastNames.forEach((id, name) -> {
+				Entry shared = distinct.computeIfAbsent(name, (n) -> new Entry(normalize(n), n, 0));
+				changes.add(new Entry(shared.key, shared.name, id));
+			});
+			changes.sort(null);
+
+			int capacity = size() + changes.size();
+			String[] keys = new String[capacity];
+			String[] names = new String[capacity];
+			int[] ids = new int[capacity];
+			int count = 0;
+			int i = 0;
+			int j = 0;
+			while (i < size() || j < changes.size()) {
+				if (i < size() && lastNames.containsKey(this.ids[i])) {
+					i++;
+				}
+				else if (j >= changes.size() || (i < size() && compare(i, changes.get(j).key, changes.get(j).id) < 0)) {
+					keys[count] = this.keys[i];
+					names[count] = this.names[i];
+					ids[count++] = this.ids[i++];
+				}
+				else {
+					Entry entry = changes.get(j++);
+					keys[count] = entry.key;
+					names[count] = entry.name;
+					ids[count++] = entry.id;
+				}
+			}
+			if (count < capacity) {
+				keys = Arrays.copyOf(keys, count);
+				names = Arrays.copyOf(names, count);
+				ids = Arrays.copyOf(ids, count);
+			}
+			return new Entries(keys, names, ids);
+		}
+
+	}
+
+	private static final class Entry implements Comparable<Entry> {
+
+		final String key;
+
+		final String name;
+
+		final int id;
+
+		Entry(String key, String name, int id) {
+			this.key = key;
+			this.name = name;
+			this.id = id;
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			int result = this.key.compareTo(other.key);
+			return (result != 0 ? result : Integer.compare(this.id, other.id));
+		}
+
+	}
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the {@link OwnerLastNameIndex}, bound from the
+ * <code>petclinic.owners.last-name-index</code> properties.
+ */
+@ConfigurationProperties("petclinic.owners.last-name-index")
+public class OwnerLastNameIndexProperties {
+
+	/**
+	 * Whether to serve the owner search and the last name suggestions from the index.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * How long the index is used before it is reloaded from the database, to pick up the
+	 * owners saved by the other nodes.
+	 */
+	private Duration refreshInterval = Duration.ofMinutes(1);
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getRefreshInterval() {
+		return this.refreshInterval;
+	}
+
+	public void setRefreshInterval(Duration refreshInterval) {
+		this.refreshInterval = refreshInterval;
+	}
+
+}
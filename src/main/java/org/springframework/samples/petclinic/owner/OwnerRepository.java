@@ -16,9 +16,15 @@
 package org.springframework.samples.petclinic.owner;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
@@ -48,13 +54,90 @@ public interface OwnerRepository extends Repository<Owner, Integer> {
 	Collection<Owner> findByLastName(@Param("lastName") String lastName);
 
 	/**
-	 * Retrieve an {@link Owner} from the data store by id.
+	 * Retrieve the ids of the {@link Owner}s whose last name <i>starts</i> with the given
+	 * name and that sort after the given keyset position, ordered by last name and id.
+	 * @param lastName Value to search for
+	 * @param afterLastName last name of the keyset position
+	 * @param afterId id of the keyset position
+	 * @param pageable the page size, the offset is always expected to be zero
+	 * @return the ids of the matching {@link Owner}s in ascending order
+	 */
+	@Query("SELECT owner.id FROM Owner owner WHERE owner.lastName LIKE :lastName% AND (owner.lastName > :afterLastName"
+			+ " OR (owner.lastName = :afterLastName AND owner.id > :afterId)) ORDER BY owner.lastName, owner.id")
+	@Transactional(readOnly = true)
+	List<Integer> findIdsByLastNameAfter(@Param("lastName") String lastName,
+			@Param("afterLastName") String afterLastName, @Param("afterId") Integer afterId, Pageable pageable);
+
+	/**
+	 * Retrieve the ids of the {@link Owner}s whose last name <i>starts</i> with the given
+	 * name and that sort before the given keyset position, ordered by last name and id in
+	 * <i>descending</i> order.
+	 * @param lastName Value to search for
+	 * @param beforeLastName last name of the keyset position
+	 * @param beforeId id of the keyset position
+	 * @param pageable the page size, the offset is always expected to be zero
+	 * @return the ids of the matching {@link Owner}s in descending order
+	 */
+	@Query("SELECT owner.id FROM Owner owner WHERE owner.lastName LIKE :lastName% AND (owner.lastName < :beforeLastName"
+			+ " OR (owner.lastName = :beforeLastName AND owner.id < :beforeId))"
+			+ " ORDER BY owner.lastName DESC, owner.id DESC")
+	@Transactional(readOnly = true)
+	List<Integer> findIdsByLastNameBefore(@Param("lastName") String lastName,
+			@Param("beforeLastName") String beforeLastName, @Param("beforeId") Integer beforeId, Pageable pageable);
+
+	/**
+	 * Retrieve the {@link Owner}s with the given ids, along with their pets.
+	 * @param ids the ids to search for
+	 * @return the matching {@link Owner}s, in no particular order
+	 */
+	@Query("SELECT DISTINCT owner FROM Owner owner left join fetch owner.pets WHERE owner.id IN :ids")
+	@Transactional(readOnly = true)
+	List<Owner> findByIdIn(@Param("ids") Collection<Integer> ids);
+
+	/**
+	 * Retrieve the id and last name of every {@link Owner} in the data store.
+	 * @return a <code>[id, lastName]</code> pair for each {@link Owner}
+	 */
+	@Query("SELECT owner.id, owner.lastName FROM Owner owner")
+	@Transactional(readOnly = true)
+	List<Object[]> findAllLastNames();
+
+	/**
+	 * Retrieve the distinct last names of the {@link Owner}s that <i>start</i> with the
+	 * given name, in alphabetical order.
+	 * @param lastName Value to search for
+	 * @param pageable the maximum number of last names to return
+	 * @return the matching last names
+	 */
+	@Query("SELECT DISTINCT owner.lastName FROM Owner owner WHERE owner.lastName LIKE :lastName% ORDER BY owner.lastName")
+	@Transactional(readOnly = true)
+	List<String> findLastNames(@Param("lastName") String lastName, Pageable pageable);
+
+	/**
+	 * Retrieve an {@link Owner} from the data store by id, along with its pets.
+	 * @param id the id to search for
+	 * @return the {@link Owner} if found
+	 * @see #findCachedById(Integer)
+	 */
+	@Transactional(readOnly = true)
+	default Optional<Owner> findById(Integer id) {
+		Optional<Owner> owner = findCachedById(id);
+		// the query cache only keeps the owner id, load the pets from their cache
+		owner.ifPresent((found) -> Hibernate.initialize(found.getPetsInternal()));
+		return owner;
+	}
+
+	/**
+	 * Retrieve an {@link Owner} from the data store by id. The query result is kept in
+	 * the Hibernate query cache, and the pets of the owner are only fetched when the
+	 * result is not cached yet: use {@link #findById(Integer)} to always get them.
 	 * @param id the id to search for
 	 * @return the {@link Owner} if found
 	 */
 	@Query("SELECT owner FROM Owner owner left join fetch owner.pets WHERE owner.id =:id")
+	@QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
 	@Transactional(readOnly = true)
-	Optional<Owner> findById(@Param("id") Integer id);
+	Optional<Owner> findCachedById(@Param("id") Integer id);
 
 	/**
 	 * Save an {@link Owner} to the data store, either inserting or updating it.
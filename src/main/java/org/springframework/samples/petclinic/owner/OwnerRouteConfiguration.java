@@ -17,10 +17,10 @@ package org.springframework.samples.petclinic.owner;
 
 import static org.springframework.web.servlet.function.RouterFunctions.route;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.ConversionService;
-import org.springframework.samples.petclinic.visit.VisitRepository;
 import org.springframework.validation.Validator;
 import org.springframework.web.servlet.function.RouterFunction;
 
@@ -33,15 +33,18 @@ import org.springframework.web.servlet.function.RouterFunction;
 public class OwnerRouteConfiguration {
 
 	@Bean
-	public OwnerHandler ownerHandler(OwnerRepository repository, VisitRepository visits, Validator validator,
+	public OwnerHandler ownerHandler(OwnerRepository repository, ObjectProvider<OwnerLastNameIndex> lastNameIndex,
+			OwnerVersions versions, OwnerAggregateCache aggregates, Validator validator,
 			ConversionService conversionService) {
-		return new OwnerHandler(repository, visits, validator, conversionService);
+		return new OwnerHandler(repository, lastNameIndex.getIfAvailable(), versions, aggregates, validator,
+				conversionService);
 	}
 
 	@Bean
 	public RouterFunction<?> ownerRouterFunction(OwnerHandler handler) {
 		return route().GET("/owners/new", handler::initCreationForm).POST("/owners/new", handler::processCreationForm)
 				.GET("/owners/find", handler::initFindForm).GET("/owners", handler::processFindForm)
+				.GET("/owners/lastnames", handler::findLastNames)
 				.GET("/owners/{ownerId}/edit", handler::initUpdateOwnerForm)
 				.POST("/owners/{ownerId}/edit", handler::processUpdateForm).GET("/owners/{ownerId}", handler::showOwner)
 				.build();
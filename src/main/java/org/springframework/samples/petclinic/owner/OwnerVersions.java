@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.model.EntitySavedEvent;
+import org.springframework.samples.petclinic.visit.Visit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a version for every {@link Owner}, bumped whenever the owner, one of its pets or
+ * one of their visits is saved, so that the owner details page can answer conditional
+ * requests without loading the owner.
+ * <p>
+ * Versions are stored in the <code>version</code> column of the owners table and bumped
+ * in the transaction saving the change, so that they are shared by every node and survive
+ * restarts. The column is not mapped on {@link Owner}: bumping it is a plain SQL update
+ * that leaves the second-level cache alone.
+ * </p>
+ */
+@Component
+class OwnerVersions {
+
+	private static final String SELECT_VERSION = "SELECT version FROM owners WHERE id = ?";
+
+	private static final String BUMP_OWNER_VERSION = "UPDATE owners SET version = version + 1 WHERE id = ?";
+
+	private static final String BUMP_PET_OWNER_VERSION = "UPDATE owners SET version = version + 1"
+			+ " WHERE id = (SELECT owner_id FROM pets WHERE id = ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	OwnerVersions(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Return the current version of the given owner, or 0 if there is no such owner.
+	 */
+	public long getVersion(int ownerId) {
+		return this.jdbcTemplate.queryForList(SELECT_VERSION, Long.class, ownerId).stream().findFirst().orElse(0L);
+	}
+
+	/**
+	 * Return the weak entity tag of the given owner version.
+	 */
+	public String eTag(long version) {
+		return "W/\"" + version + "\"";
+	}
+
+	@EventListener
+	public void ownerSaved(EntitySavedEvent<Owner> event) {
+		bump(BUMP_OWNER_VERSION, event.getEntity().getId());
+	}
+
+	@EventListener
+	public void petSaved(EntitySavedEvent<Pet> event) {
+		Owner owner = event.getEntity().getOwner();
+		if (owner != null) {
+			bump(BUMP_OWNER_VERSION, owner.getId());
+		}
+	}
+
+	@EventListener
+	public void visitSaved(EntitySavedEvent<Visit> event) {
+		// the owner is looked up by the update itself rather than by loading the pet
+		bump(BUMP_PET_OWNER_VERSION, event.getEntity().getPetId());
+	}
+
+	private void bump(String update, Integer id) {
+		if (id != null) {
+			this.jdbcTemplate.update(update, id);
+		}
+	}
+
+}
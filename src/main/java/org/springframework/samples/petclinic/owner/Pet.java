@@ -16,9 +16,7 @@
 package org.springframework.samples.petclinic.owner;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -31,10 +29,11 @@ import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 
-import org.springframework.beans.support.MutableSortDefinition;
-import org.springframework.beans.support.PropertyComparator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.samples.petclinic.model.NamedEntity;
+import org.springframework.samples.petclinic.model.SortedView;
 import org.springframework.samples.petclinic.visit.Visit;
 
 /**
@@ -46,6 +45,7 @@ import org.springframework.samples.petclinic.visit.Visit;
  */
 @Entity
 @Table(name = "pets")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "petEntities")
 public class Pet extends NamedEntity {
 
 	@Column(name = "birth_date")
@@ -63,6 +63,8 @@ public class Pet extends NamedEntity {
 	@Transient
 	private Set<Visit> visits = new LinkedHashSet<>();
 
+	private transient volatile SortedView<Visit> sortedVisits;
+
 	public void setBirthDate(LocalDate birthDate) {
 		this.birthDate = birthDate;
 	}
@@ -96,16 +98,21 @@ public class Pet extends NamedEntity {
 
 	protected void setVisitsInternal(Collection<Visit> visits) {
 		this.visits = new LinkedHashSet<>(visits);
+		this.sortedVisits = null;
 	}
 
+	/**
+	 * Return the visits, from the most recent to the oldest, undated visits last.
+	 */
 	public List<Visit> getVisits() {
-		List<Visit> sortedVisits = new ArrayList<>(getVisitsInternal());
-		PropertyComparator.sort(sortedVisits, new MutableSortDefinition("date", false, false));
-		return Collections.unmodifiableList(sortedVisits);
+		SortedView<Visit> sortedVisits = SortedView.of(this.sortedVisits, getVisitsInternal(), Visit.MOST_RECENT_FIRST);
+		this.sortedVisits = sortedVisits;
+		return sortedVisits.getElements();
 	}
 
 	public void addVisit(Visit visit) {
 		getVisitsInternal().add(visit);
+		this.sortedVisits = null;
 		visit.setPetId(this.getId());
 	}
 
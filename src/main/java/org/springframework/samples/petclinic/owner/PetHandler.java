@@ -23,6 +23,7 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import org.springframework.core.convert.ConversionService;
+import org.springframework.samples.petclinic.model.NamedEntityRegistry;
 import org.springframework.samples.petclinic.support.ServerResponseSupport;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
@@ -45,12 +46,15 @@ class PetHandler {
 
 	private final OwnerRepository owners;
 
+	private final NamedEntityRegistry<PetType> petTypes;
+
 	private final ServerResponseSupport<Owner> support;
 
-	public PetHandler(PetRepository pets, OwnerRepository owners, Validator validator,
-			ConversionService conversionService) {
+	public PetHandler(PetRepository pets, OwnerRepository owners, NamedEntityRegistry<PetType> petTypes,
+			Validator validator, ConversionService conversionService) {
 		this.pets = pets;
 		this.owners = owners;
+		this.petTypes = petTypes;
 		this.support = new ServerResponseSupport<>(validator, conversionService);
 	}
 
@@ -119,13 +123,13 @@ class PetHandler {
 	}
 
 	private ServerResponse view(Owner owner, Pet pet, String view) {
-		return ok().render(view, Map.of("owner", owner, "pet", pet, "types", pets.findPetTypes()));
+		return ok().render(view, Map.of("owner", owner, "pet", pet, "types", petTypes.findAll()));
 	}
 
 	private ServerResponse view(Owner owner, BindingResult results, String view) {
 		Map<String, Object> model = results.getModel();
 		model.put("owner", owner);
-		model.put("types", pets.findPetTypes());
+		model.put("types", petTypes.findAll());
 		return ok().render(view, model);
 	}
 
@@ -51,10 +51,28 @@ public interface PetRepository extends Repository<Pet, Integer> {
 	@Transactional(readOnly = true)
 	Optional<Pet> findById(Integer id);
 
+	/**
+	 * Check whether a {@link Pet} with the given id exists, without loading it.
+	 * Read-write, so that the check runs against the primary database and finds a pet
+	 * just added while the read replicas lag behind.
+	 * @param id the id to search for
+	 * @return whether the {@link Pet} exists
+	 */
+	@Transactional
+	boolean existsById(Integer id);
+
 	/**
 	 * Save a {@link Pet} to the data store, either inserting or updating it.
 	 * @param pet the {@link Pet} to save
 	 */
 	void save(Pet pet);
 
+	/**
+	 * Save all the given {@link Pet}s in a single transaction. New pets are inserted in
+	 * JDBC batches.
+	 * @param pets the {@link Pet}s to save
+	 * @see org.springframework.samples.petclinic.model.BaseEntity#ID_ALLOCATION_SIZE
+	 */
+	void saveAll(Iterable<Pet> pets);
+
 }
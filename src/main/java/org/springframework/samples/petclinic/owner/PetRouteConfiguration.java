@@ -20,6 +20,7 @@ import static org.springframework.web.servlet.function.RouterFunctions.route;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.samples.petclinic.model.NamedEntityRegistry;
 import org.springframework.validation.Validator;
 import org.springframework.web.servlet.function.RouterFunction;
 
@@ -32,9 +33,14 @@ import org.springframework.web.servlet.function.RouterFunction;
 public class PetRouteConfiguration {
 
 	@Bean
-	public PetHandler petHandler(PetRepository repository, OwnerRepository owners, Validator validator,
-			ConversionService conversionService) {
-		return new PetHandler(repository, owners, validator, conversionService);
+	public NamedEntityRegistry<PetType> petTypes(PetRepository repository) {
+		return new NamedEntityRegistry<>(repository::findPetTypes);
+	}
+
+	@Bean
+	public PetHandler petHandler(PetRepository repository, OwnerRepository owners,
+			NamedEntityRegistry<PetType> petTypes, Validator validator, ConversionService conversionService) {
+		return new PetHandler(repository, owners, petTypes, validator, conversionService);
 	}
 
 	@Bean
@@ -18,6 +18,8 @@ package org.springframework.samples.petclinic.owner;
 import javax.persistence.Entity;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.samples.petclinic.model.NamedEntity;
 
 /**
@@ -25,6 +27,7 @@ import org.springframework.samples.petclinic.model.NamedEntity;
  */
 @Entity
 @Table(name = "types")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "petTypeEntities")
 public class PetType extends NamedEntity {
 
 }
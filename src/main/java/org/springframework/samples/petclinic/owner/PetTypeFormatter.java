@@ -16,11 +16,11 @@
 package org.springframework.samples.petclinic.owner;
 
 import java.text.ParseException;
-import java.util.Collection;
 import java.util.Locale;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.Formatter;
+import org.springframework.samples.petclinic.model.NamedEntityRegistry;
 import org.springframework.stereotype.Component;
 
 /**
@@ -37,11 +37,11 @@ import org.springframework.stereotype.Component;
 @Component
 public class PetTypeFormatter implements Formatter<PetType> {
 
-	private final PetRepository pets;
+	private final NamedEntityRegistry<PetType> petTypes;
 
 	@Autowired
-	public PetTypeFormatter(PetRepository pets) {
-		this.pets = pets;
+	public PetTypeFormatter(NamedEntityRegistry<PetType> petTypes) {
+		this.petTypes = petTypes;
 	}
 
 	@Override
@@ -51,8 +51,7 @@ public class PetTypeFormatter implements Formatter<PetType> {
 
 	@Override
 	public PetType parse(String text, Locale locale) throws ParseException {
-		return this.pets.findPetTypes().stream().filter(type -> type.getName().equals(text)).findFirst()
-				.orElseThrow(() -> new ParseException("type not found: " + text, 0));
+		return this.petTypes.findByName(text).orElseThrow(() -> new ParseException("type not found: " + text, 0));
 	}
 
 }
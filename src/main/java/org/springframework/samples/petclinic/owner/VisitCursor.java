@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+import org.springframework.lang.Nullable;
+import org.springframework.samples.petclinic.visit.Visit;
+
+/**
+ * Keyset position in the visits of a pet ordered from the most recent to the oldest, by
+ * date and id, undated visits coming last. Rendered as <code>id:date</code>, with an
+ * empty date for undated visits, so it can travel as a single request parameter between
+ * pages of the visit history.
+ */
+final class VisitCursor {
+
+	@Nullable
+	private final LocalDate date;
+
+	private final int id;
+
+	private VisitCursor(@Nullable LocalDate date, int id) {
+		this.date = date;
+		this.id = id;
+	}
+
+	static VisitCursor of(Visit visit) {
+		return new VisitCursor(visit.getDate(), visit.getId());
+	}
+
+	/**
+	 * Parse a cursor previously rendered with {@link #toString()}.
+	 * @param text the cursor text
+	 * @return the cursor, or empty if the text is not a valid cursor
+	 */
+	static Optional<VisitCursor> parse(String text) {
+		int separator = text.indexOf(':');
+		if (separator <= 0) {
+			return Optional.empty();
+		}
+		try {
+			int id = Integer.parseInt(text.substring(0, separator));
+			String date = text.substring(separator + 1);
+			return Optional.of(new VisitCursor((date.isEmpty() ? null : LocalDate.parse(date)), id));
+		}
+		catch (NumberFormatException | DateTimeParseException ex) {
+			return Optional.empty();
+		}
+	}
+
+	@Nullable
+	LocalDate getDate() {
+		return this.date;
+	}
+
+	int getId() {
+		return this.id;
+	}
+
+	@Override
+	public String toString() {
+		return this.id + ":" + (this.date != null ? this.date : "");
+	}
+
+}
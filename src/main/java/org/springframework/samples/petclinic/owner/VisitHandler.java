@@ -15,11 +15,18 @@
  */
 package org.springframework.samples.petclinic.owner;
 
+import static org.springframework.web.servlet.function.ServerResponse.notFound;
 import static org.springframework.web.servlet.function.ServerResponse.ok;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.samples.petclinic.support.ServerResponseSupport;
 import org.springframework.samples.petclinic.visit.Visit;
 import org.springframework.samples.petclinic.visit.VisitRepository;
@@ -39,6 +46,11 @@ import org.springframework.web.servlet.function.ServerResponse;
  */
 class VisitHandler {
 
+	/**
+	 * Maximum number of previous visits shown in a single page of the visit history.
+	 */
+	static final int VISITS_PAGE_SIZE = 10;
+
 	private final VisitRepository visits;
 
 	private final PetRepository pets;
@@ -52,27 +64,44 @@ class VisitHandler {
 		this.support = new ServerResponseSupport<>(validator, conversionService);
 	}
 
+	/**
+	 * Show the new visit form, along with a page of the previous visits of the pet: the
+	 * most recent ones, those older than the <code>before</code> parameter, or those more
+	 * recent than the <code>after</code> parameter.
+	 */
 	public ServerResponse initNewVisitForm(ServerRequest request) {
-		Pet pet = findPetWithVisits(request);
-		Visit visit = new Visit();
-		pet.addVisit(visit);
-
-		return view(pet, visit, "pets/createOrUpdateVisitForm");
+		return this.pets.findById(petIdParam(request)).map((pet) -> {
+			Visit visit = new Visit();
+			visit.setPetId(pet.getId());
+
+			Map<String, Object> model = new HashMap<>();
+			model.put("visit", visit);
+			return view(pet, model, request.param("before").flatMap(VisitCursor::parse),
+					request.param("after").flatMap(VisitCursor::parse), "pets/createOrUpdateVisitForm");
+		}).orElseGet(notFound()::build);
 	}
 
+	/**
+	 * Add the visit posted with the new visit form. A valid visit is inserted after
+	 * checking that the pet exists, without loading the pet or its visits, which are only
+	 * needed to show the form again when the visit is invalid. An unknown pet gets a 404
+	 * status either way.
+	 */
 	public ServerResponse processNewVisitForm(ServerRequest request) {
-		Pet pet = findPetWithVisits(request);
-		Visit visit = new Visit();
-		pet.addVisit(visit);
-
-		ServletRequestDataBinder binder = support.binder(visit, "visit");
+		Integer petId = petIdParam(request);
+		ServletRequestDataBinder binder = support.binder(new Visit(), "visit");
 		binder.bind(request.servletRequest());
 		binder.validate();
 		BindingResult result = binder.getBindingResult();
-		visit = (Visit) result.getTarget();
+		Visit visit = (Visit) result.getTarget();
+		visit.setPetId(petId);
 
 		if (result.hasErrors()) {
-			return view(pet, result, "pets/createOrUpdateVisitForm");
+			return this.pets.findById(petId).map((pet) -> view(pet, result.getModel(), Optional.empty(),
+					Optional.empty(), "pets/createOrUpdateVisitForm")).orElseGet(notFound()::build);
+		}
+		else if (!this.pets.existsById(petId)) {
+			return notFound().build();
 		}
 		else {
 			this.visits.save(visit);
@@ -80,11 +109,44 @@ class VisitHandler {
 		}
 	}
 
-	private Pet findPetWithVisits(ServerRequest request) {
-		Integer petId = petIdParam(request);
-		Pet pet = this.pets.findById(petId).get();
-		pet.setVisitsInternal(this.visits.findByPetId(petId));
-		return pet;
+	/**
+	 * Find a page of the previous visits of a pet, most recent first, fetching one more
+	 * than the page size to find out whether there are older visits.
+	 */
+	private List<Visit> findOlderVisits(Integer petId, Optional<VisitCursor> before) {
+		PageRequest limit = PageRequest.of(0, VISITS_PAGE_SIZE + 1);
+		if (before.isEmpty()) {
+			return this.visits.findMostRecentByPetId(petId, limit);
+		}
+		if (before.get().getDate() == null) {
+			return this.visits.findUndatedByPetIdBefore(petId, before.get().getId(), limit);
+		}
+		return this.visits.findByPetIdBefore(petId, before.get().getDate(), before.get().getId(), limit);
+	}
+
+	/**
+	 * Find a page of the previous visits of a pet, oldest first, fetching one more than
+	 * the page size to find out whether there are more recent visits.
+	 */
+	private List<Visit> findNewerVisits(Integer petId, VisitCursor after) {
+		PageRequest limit = PageRequest.of(0, VISITS_PAGE_SIZE + 1);
+		if (after.getDate() == null) {
+			return this.visits.findByPetIdAfterUndated(petId, after.getId(), limit);
+		}
+		return this.visits.findByPetIdAfter(petId, after.getDate(), after.getId(), limit);
+	}
+
+	/**
+	 * Drop the extra visit fetched to find out whether there are more visits beyond the
+	 * page.
+	 * @return whether there are more visits
+	 */
+	private static boolean trimToPageSize(List<Visit> visits) {
+		if (visits.size() > VISITS_PAGE_SIZE) {
+			visits.subList(VISITS_PAGE_SIZE, visits.size()).clear();
+			return true;
+		}
+		return false;
 	}
 
 	private Integer petIdParam(ServerRequest request) {
@@ -95,13 +157,30 @@ class VisitHandler {
 		return Integer.parseInt(request.pathVariable("ownerId"));
 	}
 
-	private ServerResponse view(Pet pet, Visit visit, String view) {
-		return ok().render(view, Map.of("pet", pet, "visit", visit));
-	}
-
-	private ServerResponse view(Pet pet, BindingResult results, String view) {
-		Map<String, Object> model = results.getModel();
+	private ServerResponse view(Pet pet, Map<String, Object> model, Optional<VisitCursor> before,
+			Optional<VisitCursor> after, String view) {
+		List<Visit> visits;
+		boolean hasNewer;
+		boolean hasOlder;
+		if (after.isPresent()) {
+			visits = new ArrayList<>(findNewerVisits(pet.getId(), after.get()));
+			hasNewer = trimToPageSize(visits);
+			hasOlder = true;
+			Collections.reverse(visits);
+		}
+		else {
+			visits = new ArrayList<>(findOlderVisits(pet.getId(), before));
+			hasNewer = before.isPresent();
+			hasOlder = trimToPageSize(visits);
+		}
+		if (hasNewer && !visits.isEmpty()) {
+			model.put("newerCursor", VisitCursor.of(visits.get(0)));
+		}
+		if (hasOlder && !visits.isEmpty()) {
+			model.put("olderCursor", VisitCursor.of(visits.get(visits.size() - 1)));
+		}
 		model.put("pet", pet);
+		model.put("visits", visits);
 		return ok().render(view, model);
 	}
 
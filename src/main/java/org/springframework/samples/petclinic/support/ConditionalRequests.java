@@ -0,0 +1,65 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.support;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Support methods for answering conditional GET requests from Spring MVC handler
+ * functions.
+ */
+public final class ConditionalRequests {
+
+	private ConditionalRequests() {
+	}
+
+	/**
+	 * Whether the <code>If-None-Match</code> header of the request matches the given
+	 * entity tag, using the weak comparison required for that header.
+	 * @param request the current request
+	 * @param eTag the quoted entity tag of the current representation
+	 */
+	public static boolean isNotModified(ServerRequest request, String eTag) {
+		for (String header : request.headers().header(HttpHeaders.IF_NONE_MATCH)) {
+			for (String candidate : StringUtils.commaDelimitedListToStringArray(header)) {
+				candidate = candidate.trim();
+				if (candidate.equals("*") || weak(candidate).equals(weak(eTag))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Build a <code>304 Not Modified</code> response for the given entity tag.
+	 * @param eTag the quoted entity tag of the current representation
+	 * @param varyBy the request headers the representation depends on, sent in the
+	 * <code>Vary</code> header as they would be with a full response
+	 */
+	public static ServerResponse notModified(String eTag, String... varyBy) {
+		return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(varyBy).build();
+	}
+
+	private static String weak(String eTag) {
+		return (eTag.startsWith("W/") ? eTag.substring(2) : eTag);
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.support;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Reads comma separated values one record at a time, so that files of any size can be
+ * processed with constant memory.
+ * <p>
+ * Fields may be enclosed in double quotes, in which case they can contain commas, line
+ * breaks and doubled double quotes. Records end with either <code>\n</code>,
+ * <code>\r\n</code> or <code>\r</code>. A byte order mark at the start of the input is
+ * skipped.
+ * </p>
+ */
+public class CsvReader implements Closeable {
+
+	/**
+	 * Maximum number of characters in a single record, so that a missing closing quote
+	 * does not pull the rest of the input into memory.
+	 */
+	public static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+	private static final int NONE = -2;
+
+	private final Reader reader;
+
+	private final StringBuilder field = new StringBuilder();
+
+	private int lookahead = NONE;
+
+	private long lineNumber = 1;
+
+	private long recordLineNumber;
+
+	public CsvReader(Reader reader) {
+		this.reader = (reader instanceof BufferedReader ? reader : new BufferedReader(reader));
+	}
+
+	/**
+	 * Read the next record.
+	 * @return the fields of the record, or <code>null</code> at the end of the input
+	 * @throws IOException if the input cannot be read, or if a record is malformed or too
+	 * long
+	 */
+	@Nullable
+	public List<String> readRecord() throws IOException {
+		int c = read();
+		if (this.recordLineNumber == 0 && c == '\uFEFF') {
+			c = read();
+		}
+		if (c == -1) {
+			return null;
+		}
+		this.recordLineNumber = this.lineNumber;
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = this.field;
+		field.setLength(0);
+		boolean quoted = false;
+		int length = 0;
+		while (true) {
+			if (++length > MAX_RECORD_LENGTH) {
+				throw new IOException("Record on line " + this.recordLineNumber + " is longer than " + MAX_RECORD_LENGTH
+						+ " characters");
+			}
+			if (quoted) {
+				if (c == -1) {
+					throw new IOException("Unterminated quoted field on line " + this.recordLineNumber);
+				}
+				if (c == '"') {
+					int next = read();
+					if (next != '"') {
+						quoted = false;
+						c = next;
+						continue;
+					}
+				}
+				else if (c == '\n' || (c == '\r' && peek() != '\n')) {
+					this.lineNumber++;
+				}
+				field.append((char) c);
+			}
+			else if (c == '"' && field.length() == 0) {
+				quoted = true;
+			}
+			else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else if (c == '\n' || c == '\r' || c == -1) {
+				if (c == '\r' && peek() == '\n') {
+					read();
+				}
+				if (c != -1) {
+					this.lineNumber++;
+				}
+				fields.add(field.toString());
+				return fields;
+			}
+			else {
+				field.append((char) c);
+			}
+			c = read();
+		}
+	}
+
+	/**
+	 * Return the line on which the last record read starts, counting from one.
+	 */
+	public long getLineNumber() {
+		return this.recordLineNumber;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.reader.close();
+	}
+
+	private int read() throws IOException {
+		int c = peek();
+		this.lookahead = NONE;
+		return c;
+	}
+
+	private int peek() throws IOException {
+		if (this.lookahead == NONE) {
+			this.lookahead = this.reader.read();
+		}
+		return this.lookahead;
+	}
+
+}
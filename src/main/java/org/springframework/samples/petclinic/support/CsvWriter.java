@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.support;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Writes comma separated values one record at a time, in the format read by
+ * {@link CsvReader}.
+ * <p>
+ * Fields containing commas, double quotes or line breaks are enclosed in double quotes,
+ * with their double quotes doubled. <code>null</code> values are written as empty fields.
+ * Records end with <code>\r\n</code>.
+ * </p>
+ */
+public class CsvWriter implements Flushable, Closeable {
+
+	private final Writer writer;
+
+	public CsvWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Write a record with the given fields, converted with {@link Object#toString()}.
+	 * @param fields the fields of the record
+	 * @throws IOException if the output cannot be written
+	 */
+	public void writeRecord(@Nullable Object... fields) throws IOException {
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) {
+				this.writer.write(',');
+			}
+			if (fields[i] != null) {
+				writeField(fields[i].toString());
+			}
+		}
+		this.writer.write("\r\n");
+	}
+
+	private void writeField(String field) throws IOException {
+		boolean quoted = false;
+		for (int i = 0; i < field.length() && !quoted; i++) {
+			char c = field.charAt(i);
+			quoted = (c == ',' || c == '"' || c == '\n' || c == '\r');
+		}
+		if (!quoted) {
+			this.writer.write(field);
+			return;
+		}
+		this.writer.write('"');
+		this.writer.write(field.replace("\"", "\"\""));
+		this.writer.write('"');
+	}
+
+	@Override
+	public void flush() throws IOException {
+		this.writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.writer.close();
+	}
+
+}
@@ -16,40 +16,99 @@
 
 package org.springframework.samples.petclinic.system;
 
-import javax.cache.configuration.MutableConfiguration;
+import java.util.List;
 
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * Cache configuration intended for caches providing the JCache API. This configuration
- * creates the used cache for the application and enables statistics that become
- * accessible via JMX.
+ * creates the used caches for the application, sized and expired according to the
+ * {@link PetClinicCacheProperties}, and enables statistics that become accessible via
+ * JMX.
+ * <p>
+ * The same cache manager also holds the regions of the Hibernate second-level and query
+ * caches, so that they are sized and monitored like the application caches.
+ * </p>
  */
 @Configuration(proxyBeanMethods = false)
 @EnableCaching
+@EnableConfigurationProperties(PetClinicCacheProperties.class)
 class CacheConfiguration {
 
+	private static final List<String> CACHE_NAMES = List.of("vets", "renderedVets", "owners");
+
+	/**
+	 * Regions of the entities and collections annotated with
+	 * {@link org.hibernate.annotations.Cache}, followed by the query cache regions.
+	 */
+	private static final List<String> HIBERNATE_REGION_NAMES = List.of("ownerEntities", "ownerPets", "petEntities",
+			"petTypeEntities", "specialtyEntities", "vetEntities", "vetSpecialties", "default-query-results-region",
+			"default-update-timestamps-region");
+
 	@Bean
-	public JCacheManagerCustomizer petclinicCacheConfigurationCustomizer() {
+	public JCacheManagerCustomizer petclinicCacheConfigurationCustomizer(PetClinicCacheProperties properties) {
 		return cm -> {
-			cm.createCache("vets", cacheConfiguration());
+			CACHE_NAMES.forEach((name) -> createCache(cm, name, properties.getCache(name)));
+			HIBERNATE_REGION_NAMES.forEach((name) -> createCache(cm, name, properties.getCache(name)));
+		};
+	}
+
+	/**
+	 * Have Hibernate use the regions created in the application cache manager, rather
+	 * than creating a cache manager of its own.
+	 */
+	@Bean
+	public HibernatePropertiesCustomizer hibernateSecondLevelCacheCustomizer(javax.cache.CacheManager cacheManager) {
+		return (properties) -> {
+			properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+			properties.put(ConfigSettings.MISSING_CACHE_STRATEGY,
+					MissingCacheStrategy.FAIL.getExternalRepresentation());
 		};
 	}
 
+	private void createCache(javax.cache.CacheManager cacheManager, String name, PetClinicCacheProperties.Spec spec) {
+		cacheManager.createCache(name, cacheConfiguration(spec));
+		cacheManager.enableStatistics(name, true);
+	}
+
 	/**
-	 * Create a simple configuration that enable statistics via the JCache programmatic
-	 * configuration API.
+	 * Create an ehcache configuration with a heap tier bounded by number of entries, an
+	 * optional off-heap tier and an optional time-to-live expiry.
 	 * <p>
-	 * Within the configuration object that is provided by the JCache API standard, there
-	 * is only a very limited set of configuration options. The really relevant
-	 * configuration options (like the size limit) must be set via a configuration
-	 * mechanism that is provided by the selected JCache implementation.
+	 * The JCache API standard only offers a very limited set of configuration options, so
+	 * the configuration is built with the ehcache API and wrapped for JCache. Off-heap
+	 * entries are stored serialized.
 	 */
-	private javax.cache.configuration.Configuration<Object, Object> cacheConfiguration() {
-		return new MutableConfiguration<>().setStatisticsEnabled(true);
+	private javax.cache.configuration.Configuration<Object, Object> cacheConfiguration(
+			PetClinicCacheProperties.Spec spec) {
+		ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(spec.getHeapEntries());
+		long offHeapMegabytes = spec.getOffHeapSize().toMegabytes();
+		if (offHeapMegabytes > 0) {
+			resourcePools = resourcePools.offheap(offHeapMegabytes, MemoryUnit.MB);
+		}
+		CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+				.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+				.withExpiry(spec.getTimeToLive().isZero() ? ExpiryPolicyBuilder.noExpiration()
+						: ExpiryPolicyBuilder.timeToLiveExpiration(spec.getTimeToLive()));
+		if (offHeapMegabytes > 0) {
+			ClassLoader classLoader = getClass().getClassLoader();
+			builder = builder.withKeySerializer(new PlainJavaSerializer<>(classLoader))
+					.withValueSerializer(new PlainJavaSerializer<>(classLoader));
+		}
+		return Eh107Configuration.fromEhcacheCacheConfiguration(builder);
 	}
 
 }
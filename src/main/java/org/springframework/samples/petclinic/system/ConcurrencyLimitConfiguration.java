@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Applies a {@link ConcurrencyLimiter} to the routes of the router function beans listed
+ * in the {@link ConcurrencyLimitProperties}, the bulk ones through
+ * {@link ConcurrencyLimiter#bulk()}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "petclinic.concurrency-limit.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+class ConcurrencyLimitConfiguration {
+
+	@Bean
+	public ConcurrencyLimiter concurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+		return new ConcurrencyLimiter(properties, registry);
+	}
+
+	@Bean
+	public WebMvcConfigurer concurrencyLimiterInterceptor(ConcurrencyLimiter concurrencyLimiter) {
+		return new WebMvcConfigurer() {
+
+			@Override
+			public void addInterceptors(InterceptorRegistry registry) {
+				registry.addInterceptor(concurrencyLimiter);
+			}
+
+		};
+	}
+
+	@Bean
+	public static BeanPostProcessor concurrencyLimiterFilter(ObjectProvider<ConcurrencyLimitProperties> properties,
+			ObjectProvider<ConcurrencyLimiter> concurrencyLimiter) {
+		return new BeanPostProcessor() {
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (!(bean instanceof RouterFunction)) {
+					return bean;
+				}
+				if (properties.getObject().getRouterFunctions().contains(beanName)) {
+					return ((RouterFunction<ServerResponse>) bean).filter(concurrencyLimiter.getObject());
+				}
+				if (properties.getObject().getBulkRouterFunctions().contains(beanName)) {
+					return ((RouterFunction<ServerResponse>) bean).filter(concurrencyLimiter.getObject().bulk());
+				}
+				return bean;
+			}
+
+		};
+	}
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive limiting of the concurrent requests served by the database-bound routes, bound
+ * from the <code>petclinic.concurrency-limit</code> properties.
+ */
+@ConfigurationProperties("petclinic.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+	/**
+	 * Whether to limit the concurrent requests.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Names of the router function beans whose routes are limited. Routes served from
+	 * caches, such as the vet list, are left out so that they keep answering while the
+	 * database is slow.
+	 */
+	private List<String> routerFunctions = new ArrayList<>(
+			List.of("ownerRouterFunction", "petRouterFunction", "visitRouterFunction"));
+
+	/**
+	 * Names of the router function beans whose routes take a permit like the limited
+	 * ones, but whose latency does not adjust the limit, as they are slow by nature, such
+	 * as the bulk import and export of owners.
+	 */
+	private List<String> bulkRouterFunctions = new ArrayList<>(
+			List.of("ownerImportRouterFunction", "ownerExportRouterFunction"));
+
+	/**
+	 * Number of concurrent requests allowed at startup.
+	 */
+	private int initialLimit = 10;
+
+	/**
+	 * Number of concurrent requests always allowed, however slow the requests are.
+	 */
+	private int minLimit = 2;
+
+	/**
+	 * Number of concurrent requests never exceeded, however fast the requests are.
+	 */
+	private int maxLimit = 100;
+
+	/**
+	 * Factor applied to the limit when a request is too slow or fails.
+	 */
+	private double backoffRatio = 0.9;
+
+	/**
+	 * Time above which a request counts as a sign of overload.
+	 */
+	private Duration latencyThreshold = Duration.ofMillis(500);
+
+	/**
+	 * Delay suggested to the clients of rejected requests, in the Retry-After header.
+	 */
+	private Duration retryAfter = Duration.ofSeconds(1);
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public List<String> getRouterFunctions() {
+		return this.routerFunctions;
+	}
+
+	public void setRouterFunctions(List<String> routerFunctions) {
+		this.routerFunctions = routerFunctions;
+	}
+
+	public List<String> getBulkRouterFunctions() {
+		return this.bulkRouterFunctions;
+	}
+
+	public void setBulkRouterFunctions(List<String> bulkRouterFunctions) {
+		this.bulkRouterFunctions = bulkRouterFunctions;
+	}
+
+	public int getInitialLimit() {
+		return this.initialLimit;
+	}
+
+	public void setInitialLimit(int initialLimit) {
+		this.initialLimit = initialLimit;
+	}
+
+	public int getMinLimit() {
+		return this.minLimit;
+	}
+
+	public void setMinLimit(int minLimit) {
+		this.minLimit = minLimit;
+	}
+
+	public int getMaxLimit() {
+		return this.maxLimit;
+	}
+
+	public void setMaxLimit(int maxLimit) {
+		this.maxLimit = maxLimit;
+	}
+
+	public double getBackoffRatio() {
+		return this.backoffRatio;
+	}
+
+	public void setBackoffRatio(double backoffRatio) {
+		this.backoffRatio = backoffRatio;
+	}
+
+	public Duration getLatencyThreshold() {
+		return this.latencyThreshold;
+	}
+
+	public void setLatencyThreshold(Duration latencyThreshold) {
+		this.latencyThreshold = latencyThreshold;
+	}
+
+	public Duration getRetryAfter() {
+		return this.retryAfter;
+	}
+
+	public void setRetryAfter(Duration retryAfter) {
+		this.retryAfter = retryAfter;
+	}
+
+}
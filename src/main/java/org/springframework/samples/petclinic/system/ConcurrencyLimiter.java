@@ -0,0 +1,191 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.function.HandlerFilterFunction;
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Limits the number of requests served concurrently by the routes it filters, and rejects
+ * the excess right away with a <code>503 Service Unavailable</code> and a
+ * <code>Retry-After</code> header, rather than letting the requests queue up for a
+ * database connection.
+ * <p>
+ * The limit adapts to the latency of the requests, additive increase multiplicative
+ * decrease: it grows by one, spread over a limit's worth of requests, as long as the
+ * requests are fast and the limit is actually used, and it is multiplied by the backoff
+ * ratio when a request is slower than the latency threshold or fails. The limit is
+ * decreased at most once per latency threshold, so that the requests that were already in
+ * flight when the database slowed down do not collapse it on their own. Like
+ * {@link RouteMetrics}, a permit is taken in the {@link HandlerFilterFunction} and given
+ * back in {@link #afterCompletion}, so that it is held while the view renders, and while
+ * it lazily loads associations when open-in-view is on.
+ * </p>
+ * <p>
+ * The limit, the requests in flight and the rejected requests are exported as the
+ * <code>petclinic.concurrency.*</code> metrics.
+ * </p>
+ */
+public class ConcurrencyLimiter implements HandlerFilterFunction<ServerResponse, ServerResponse>, HandlerInterceptor {
+
+	private static final String START_ATTRIBUTE = ConcurrencyLimiter.class.getName() + ".START";
+
+	private static final String BULK_ATTRIBUTE = ConcurrencyLimiter.class.getName() + ".BULK";
+
+	private final ConcurrencyLimitProperties properties;
+
+	private final long latencyThresholdNanos;
+
+	private final LongSupplier clock;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final Counter rejected;
+
+	private volatile double limit;
+
+	private long lastDecrease;
+
+	public ConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+		this(properties, registry, System::nanoTime);
+	}
+
+	ConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry registry, LongSupplier clock) {
+		this.properties = properties;
+		this.clock = clock;
+		this.latencyThresholdNanos = properties.getLatencyThreshold().toNanos();
+		this.limit = properties.getInitialLimit();
+		this.lastDecrease = clock.getAsLong() - this.latencyThresholdNanos;
+		Gauge.builder("petclinic.concurrency.limit", this, ConcurrencyLimiter::getLimit)
+				.description("Number of concurrent requests allowed on the database-bound routes").register(registry);
+		Gauge.builder("petclinic.concurrency.in.flight", this.inFlight, AtomicInteger::get)
+				.description("Number of requests in flight on the database-bound routes").register(registry);
+		this.rejected = Counter.builder("petclinic.concurrency.rejected")
+				.description("Requests rejected because the concurrency limit was reached").register(registry);
+	}
+
+	@Override
+	public ServerResponse filter(ServerRequest request, HandlerFunction<ServerResponse> next) throws Exception {
+		if (request.attributes().containsKey(START_ATTRIBUTE)) {
+			return next.handle(request);
+		}
+		if (!tryAcquire()) {
+			this.rejected.increment();
+			return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER,
+					String.valueOf(Math.max(1, this.properties.getRetryAfter().getSeconds()))).build();
+		}
+		request.attributes().put(START_ATTRIBUTE, this.clock.getAsLong());
+		return next.handle(request);
+	}
+
+	/**
+	 * Return a filter for the bulk routes: their requests take a permit, but they are
+	 * slow by nature so their latency does not adjust the limit.
+	 */
+	public HandlerFilterFunction<ServerResponse, ServerResponse> bulk() {
+		return (request, next) -> {
+			if (!request.attributes().containsKey(START_ATTRIBUTE)) {
+				request.attributes().put(BULK_ATTRIBUTE, Boolean.TRUE);
+			}
+			return filter(request, next);
+		};
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			@Nullable Exception ex) {
+		Object start = request.getAttribute(START_ATTRIBUTE);
+		if (start instanceof Long) {
+			request.removeAttribute(START_ATTRIBUTE);
+			if (request.getAttribute(BULK_ATTRIBUTE) != null) {
+				request.removeAttribute(BULK_ATTRIBUTE);
+				this.inFlight.decrementAndGet();
+			}
+			else {
+				release(this.clock.getAsLong() - (Long) start, ex != null || response.getStatus() >= 500);
+			}
+		}
+	}
+
+	/**
+	 * Take a permit, if the limit allows it.
+	 */
+	boolean tryAcquire() {
+		int current;
+		do {
+			current = this.inFlight.get();
+			if (current >= getLimit()) {
+				return false;
+			}
+		}
+		while (!this.inFlight.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	/**
+	 * Give back a permit and adjust the limit.
+	 * @param elapsedNanos the time the request took
+	 * @param failed whether the request failed
+	 */
+	void release(long elapsedNanos, boolean failed) {
+		int inFlight = this.inFlight.getAndDecrement();
+		synchronized (this) {
+			if (failed || elapsedNanos > this.latencyThresholdNanos) {
+				long now = this.clock.getAsLong();
+				if (now - this.lastDecrease >= this.latencyThresholdNanos) {
+					this.limit = Math.max(this.properties.getMinLimit(),
+							this.limit * this.properties.getBackoffRatio());
+					this.lastDecrease = now;
+				}
+			}
+			else if (inFlight * 2 >= this.limit) {
+				this.limit = Math.min(this.properties.getMaxLimit(), this.limit + 1 / this.limit);
+			}
+		}
+	}
+
+	/**
+	 * Return the number of concurrent requests currently allowed.
+	 */
+	public int getLimit() {
+		return (int) this.limit;
+	}
+
+	/**
+	 * Return the number of requests currently in flight.
+	 */
+	public int getInFlight() {
+		return this.inFlight.get();
+	}
+
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills the existing schema with synthetic owners, pets and visits, in volumes set by the
+ * {@link DataGeneratorProperties}, so that the application can be load tested and
+ * benchmarked against a realistically sized database. Runs on startup when the
+ * <code>generate-data</code> profile is active.
+ * <p>
+ * Last names and cities follow a Zipf distribution, so that a few of them are shared by
+ * many owners. Visit dates are spread exponentially into the past, so that recent visits
+ * are the most frequent, and fall on weekdays after the pet was born. Rows are written
+ * with JDBC batches, committing every batch.
+ * </p>
+ */
+@Component
+@Profile("generate-data")
+@EnableConfigurationProperties(DataGeneratorProperties.class)
+public class DataGenerator implements ApplicationRunner {
+
+	private static final Log logger = LogFactory.getLog(DataGenerator.class);
+
+	/**
+	 * Share of the owners given one of the rare, made up, last names.
+	 */
+	private static final double RARE_LAST_NAME_RATIO = 0.1;
+
+	/**
+	 * Average age of a visit, in days.
+	 */
+	private static final double MEAN_VISIT_AGE = 365;
+
+	private static final int MAX_VISIT_AGE = 10 * 365;
+
+	private static final int MAX_PET_AGE = 15 * 365;
+
+	private static final String[] LAST_NAMES = { "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+			"Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas",
+			"Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark",
+			"Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen",
+			"Hill", "Flores", "Green", "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell", "Mitchell", "Carter",
+			"Roberts", "Gomez", "Phillips", "Evans", "Turner", "Diaz", "Parker", "Cruz", "Edwards", "Collins", "Reyes",
+			"Stewart", "Morris", "Morales", "Murphy", "Cook", "Rogers", "Gutierrez", "Ortiz", "Morgan", "Cooper",
+			"Peterson", "Bailey", "Reed", "Kelly", "Howard", "Ramos", "Kim", "Cox", "Ward", "Richardson", "Watson",
+			"Brooks", "Chavez", "Wood", "James", "Bennett", "Gray", "Mendoza", "Ruiz", "Hughes", "Price", "Alvarez",
+			"Castillo", "Sanders", "Patel", "Myers", "Long", "Ross", "Foster", "Jimenez" };
+
+	private static final String[] RARE_LAST_NAME_PREFIXES = { "Ash", "Black", "Brook", "Clay", "Fair", "Hart", "Kings",
+			"Lang", "Mor", "Nor", "Ray", "Red", "Stan", "Thorn", "West", "Whit" };
+
+	private static final String[] RARE_LAST_NAME_SUFFIXES = { "ford", "wood", "ley", "ton", "field", "well", "by",
+			"more", "stead", "worth", "ham", "wick" };
+
+	private static final String[] FIRST_NAMES = { "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael",
+			"Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+			"Sarah", "Charles", "Karen", "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Betty", "Mark", "Margaret",
+			"Donald", "Sandra", "Steven", "Ashley", "Paul", "Kimberly", "Andrew", "Emily", "Joshua", "Donna", "Kenneth",
+			"Michelle", "Kevin", "Carol", "Brian", "Amanda", "George", "Melissa", "Edward", "Deborah" };
+
+	private static final String[] CITIES = { "Madison", "Sun Prairie", "McFarland", "Windsor", "Monona", "Waunakee",
+			"Middleton", "Verona", "Fitchburg", "Stoughton", "Oregon", "Cottage Grove", "DeForest", "Cross Plains",
+			"Mount Horeb", "Deerfield", "Marshall", "Belleville", "Mazomanie", "Black Earth" };
+
+	private static final String[] STREETS = { "Main St.", "Oak Ave.", "Maple St.", "Park Ave.", "Cedar Ln.", "Elm St.",
+			"Washington Ave.", "Lake St.", "Hill Rd.", "Pine St.", "River Rd.", "Church St.", "Sunset Blvd.",
+			"Mill Rd.", "Spring St.", "Forest Dr." };
+
+	private static final String[] PET_NAMES = { "Leo", "Basil", "Rosy", "Jewel", "Iggy", "George", "Samantha", "Max",
+			"Lucky", "Mulligan", "Freddy", "Sly", "Bella", "Luna", "Charlie", "Lucy", "Cooper", "Daisy", "Milo",
+			"Bailey", "Coco", "Rocky", "Sadie", "Buddy", "Molly", "Oliver", "Stella", "Teddy", "Penny", "Zoe", "Bear",
+			"Ruby", "Duke", "Rosie", "Tucker", "Nala", "Simba", "Pepper", "Ginger", "Oscar" };
+
+	private static final String[] VISIT_DESCRIPTIONS = { "rabies shot", "annual checkup", "neutered", "spayed",
+			"vaccination", "dental cleaning", "skin allergy", "ear infection", "upset stomach", "limping",
+			"weight check", "microchip", "flea treatment", "follow up", "eye infection", "nail trim" };
+
+	/**
+	 * Relative frequency of the pet types, by name. Other types get a weight of one.
+	 */
+	private static final Map<String, Integer> PET_TYPE_WEIGHTS = Map.of("dog", 40, "cat", 35, "bird", 8, "hamster", 7,
+			"lizard", 5, "snake", 5);
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final DataGeneratorProperties properties;
+
+	public DataGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			DataGeneratorProperties properties) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.properties = properties;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		generate();
+	}
+
+	/**
+	 * Add the configured numbers of owners, pets and visits to the database.
+	 */
+	public void generate() {
+		SplittableRandom random = new SplittableRandom(this.properties.getSeed());
+		LocalDate today = LocalDate.now();
+		int owners = this.properties.getOwners();
+		int pets = (owners > 0 ? this.properties.getPets() : 0);
+		int visits = (pets > 0 ? this.properties.getVisits() : 0);
+
+		Sampler lastNames = Sampler.zipf(LAST_NAMES.length);
+		Sampler cities = Sampler.zipf(CITIES.length);
+		int firstOwnerId = reserveIds("owners", owners);
+		insert("owners", "INSERT INTO owners (id, first_name, last_name, address, city, telephone) "
+				+ "VALUES (?, ?, ?, ?, ?, ?)", owners, (ps, i) -> {
+					ps.setInt(1, firstOwnerId + i);
+					ps.setString(2, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+					ps.setString(3, lastName(random, lastNames));
+					ps.setString(4, (1 + random.nextInt(9999)) + " " + STREETS[random.nextInt(STREETS.length)]);
+					ps.setString(5, CITIES[cities.next(random)]);
+					ps.setString(6, String.format("%010d", random.nextLong(10_000_000_000L)));
+				});
+
+		List<Map<String, Object>> petTypes = this.jdbcTemplate.queryForList("SELECT id, name FROM types ORDER BY id");
+		if (pets > 0 && petTypes.isEmpty()) {
+			throw new IllegalStateException("Pet types must be loaded before generating pets");
+		}
+		Sampler types = Sampler.weighted(
+				petTypes.stream().mapToDouble((type) -> PET_TYPE_WEIGHTS.getOrDefault(type.get("name"), 1)).toArray());
+		int[] birthDays = new int[pets];
+		int firstPetId = reserveIds("pets", pets);
+		insert("pets", "INSERT INTO pets (id, name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?, ?)", pets,
+				(ps, i) -> {
+					LocalDate birthDate = today.minusDays(random.nextInt(MAX_PET_AGE));
+					birthDays[i] = (int) birthDate.toEpochDay();
+					ps.setInt(1, firstPetId + i);
+					ps.setString(2, PET_NAMES[random.nextInt(PET_NAMES.length)]);
+					ps.setDate(3, Date.valueOf(birthDate));
+					ps.setInt(4, ((Number) petTypes.get(types.next(random)).get("id")).intValue());
+					ps.setInt(5, firstOwnerId + random.nextInt(owners));
+				});
+
+		int firstVisitId = reserveIds("visits", visits);
+		insert("visits", "INSERT INTO visits (id, pet_id, visit_date, description) VALUES (?, ?, ?, ?)", visits,
+				(ps, i) -> {
+					// squaring skews the visits towards some of the pets, as some need
+					// more care
+					double skew = random.nextDouble();
+					int pet = (int) (pets * skew * skew);
+					ps.setInt(1, firstVisitId + i);
+					ps.setInt(2, firstPetId + pet);
+					ps.setDate(3, Date.valueOf(visitDate(random, today, LocalDate.ofEpochDay(birthDays[pet]))));
+					ps.setString(4, VISIT_DESCRIPTIONS[random.nextInt(VISIT_DESCRIPTIONS.length)]);
+				});
+	}
+
+	private static String lastName(SplittableRandom random, Sampler lastNames) {
+		if (random.nextDouble() < RARE_LAST_NAME_RATIO) {
+			return RARE_LAST_NAME_PREFIXES[random.nextInt(RARE_LAST_NAME_PREFIXES.length)]
+					+ RARE_LAST_NAME_SUFFIXES[random.nextInt(RARE_LAST_NAME_SUFFIXES.length)];
+		}
+		return LAST_NAMES[lastNames.next(random)];
+	}
+
+	private static LocalDate visitDate(SplittableRandom random, LocalDate today, LocalDate birthDate) {
+		int age = (int) Math.min(-MEAN_VISIT_AGE * Math.log(1 - random.nextDouble()), MAX_VISIT_AGE);
+		LocalDate date = today.minusDays(age);
+		if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+			date = date.minusDays(date.getDayOfWeek().getValue() - DayOfWeek.FRIDAY.getValue());
+		}
+		if (date.isBefore(birthDate)) {
+			date = birthDate.plusDays(random.nextInt((int) (today.toEpochDay() - birthDate.toEpochDay()) + 1));
+		}
+		return date;
+	}
+
+	/**
+	 * Reserve a block of ids in the <code>id_generators</code> table, so that the
+	 * application does not hand them out again.
+	 * @return the first id of the block
+	 */
+	private int reserveIds(String table, int count) {
+		return this.transactionTemplate.execute((status) -> {
+			this.jdbcTemplate.update("UPDATE id_generators SET next_val = next_val + ? WHERE name = ?", count, table);
+			return this.jdbcTemplate.queryForObject("SELECT next_val FROM id_generators WHERE name = ?", Integer.class,
+					table) - count;
+		});
+	}
+
+	private void insert(String table, String sql, int count, RowWriter rows) {
+		long start = System.nanoTime();
+		int batchSize = this.properties.getBatchSize();
+		for (int offset = 0; offset < count; offset += batchSize) {
+			int first = offset;
+			int size = Math.min(batchSize, count - offset);
+			this.transactionTemplate.executeWithoutResult(
+					(status) -> this.jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+
+						@Override
+						public void setValues(PreparedStatement ps, int i) throws SQLException {
+							rows.write(ps, first + i);
+						}
+
+						@Override
+						public int getBatchSize() {
+							return size;
+						}
+
+					}));
+		}
+		long millis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+		logger.info(String.format("Inserted %d %s in %d ms (%d rows/s)", count, table, millis, count * 1000L / millis));
+	}
+
+	/**
+	 * Sets the parameters of the insert statement of a single row.
+	 */
+	@FunctionalInterface
+	private interface RowWriter {
+
+		void write(PreparedStatement ps, int index) throws SQLException;
+
+	}
+
+	/**
+	 * Picks indexes at random, following the given relative weights.
+	 */
+	private static final class Sampler {
+
+		private final double[] cumulativeWeights;
+
+		private Sampler(double[] weights) {
+			this.cumulativeWeights = new double[weights.length];
+			double total = 0;
+			for (int i = 0; i < weights.length; i++) {
+				total += weights[i];
+				this.cumulativeWeights[i] = total;
+			}
+		}
+
+		static Sampler weighted(double[] weights) {
+			return new Sampler(weights);
+		}
+
+		/**
+		 * Zipf distribution, where the weight of an index is inversely proportional to
+		 * its rank.
+		 */
+		static Sampler zipf(int size) {
+			double[] weights = new double[size];
+			for (int i = 0; i < size; i++) {
+				weights[i] = 1.0 / (i + 1);
+			}
+			return new Sampler(weights);
+		}
+
+		int next(SplittableRandom random) {
+			double total = this.cumulativeWeights[this.cumulativeWeights.length - 1];
+			int index = Arrays.binarySearch(this.cumulativeWeights, random.nextDouble() * total);
+			return Math.min((index >= 0) ? index : -index - 1, this.cumulativeWeights.length - 1);
+		}
+
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Volumes of the synthetic data written by the {@link DataGenerator}, bound from the
+ * <code>petclinic.generator</code> properties.
+ */
+@ConfigurationProperties("petclinic.generator")
+public class DataGeneratorProperties {
+
+	/**
+	 * Number of owners to add.
+	 */
+	private int owners = 10_000;
+
+	/**
+	 * Number of pets to add, spread over the added owners.
+	 */
+	private int pets = 30_000;
+
+	/**
+	 * Number of visits to add, spread over the added pets.
+	 */
+	private int visits = 200_000;
+
+	/**
+	 * Number of rows written per JDBC batch, and per transaction.
+	 */
+	private int batchSize = 1000;
+
+	/**
+	 * Seed of the random generator, so that the same data can be generated again.
+	 */
+	private long seed = 42;
+
+	public int getOwners() {
+		return this.owners;
+	}
+
+	public void setOwners(int owners) {
+		this.owners = owners;
+	}
+
+	public int getPets() {
+		return this.pets;
+	}
+
+	public void setPets(int pets) {
+		this.pets = pets;
+	}
+
+	public int getVisits() {
+		return this.visits;
+	}
+
+	public void setVisits(int visits) {
+		this.visits = visits;
+	}
+
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public long getSeed() {
+		return this.seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+}
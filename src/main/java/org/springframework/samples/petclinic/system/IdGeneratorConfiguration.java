@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.model.IdBlockGenerator;
+
+/**
+ * Gives the {@link IdBlockGenerator} a connection pool of its own, on the main database,
+ * to reserve blocks of ids while the request threads hold the connections of the main
+ * pool.
+ */
+@Configuration(proxyBeanMethods = false)
+class IdGeneratorConfiguration {
+
+	@Bean
+	public IdGeneratorDataSource idGeneratorDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("petclinic-id-generators");
+		dataSource.setMaximumPoolSize(2);
+		dataSource.setMinimumIdle(0);
+		return new IdGeneratorDataSource(dataSource);
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer idGeneratorCustomizer(IdGeneratorDataSource idGeneratorDataSource) {
+		return (properties) -> properties.put(IdBlockGenerator.DATA_SOURCE, idGeneratorDataSource.dataSource);
+	}
+
+	/**
+	 * Holds the pool without exposing it as a {@link javax.sql.DataSource} bean, which
+	 * would compete with the application data source.
+	 */
+	static class IdGeneratorDataSource implements AutoCloseable {
+
+		private final HikariDataSource dataSource;
+
+		IdGeneratorDataSource(HikariDataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		@Override
+		public void close() {
+			this.dataSource.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Sizing and expiry of the application caches, bound from the
+ * <code>petclinic.cache</code> properties. Caches without settings of their own use the
+ * defaults, and so do the settings a cache leaves unset.
+ */
+@ConfigurationProperties("petclinic.cache")
+public class PetClinicCacheProperties {
+
+	/**
+	 * Settings used for caches that are not listed in {@link #getCaches() caches}.
+	 */
+	private final Spec defaults = new Spec(1000L, DataSize.ofBytes(0), Duration.ofMinutes(10));
+
+	/**
+	 * Per cache settings, keyed by cache name.
+	 */
+	private final Map<String, Spec> caches = new LinkedHashMap<>();
+
+	public Spec getDefaults() {
+		return this.defaults;
+	}
+
+	public Map<String, Spec> getCaches() {
+		return this.caches;
+	}
+
+	/**
+	 * Return the settings of the given cache, completed with the defaults.
+	 */
+	public Spec getCache(String name) {
+		Spec spec = this.caches.get(name);
+		if (spec == null) {
+			return this.defaults;
+		}
+		return new Spec((spec.heapEntries != null ? spec.heapEntries : this.defaults.heapEntries),
+				(spec.offHeapSize != null ? spec.offHeapSize : this.defaults.offHeapSize),
+				(spec.timeToLive != null ? spec.timeToLive : this.defaults.timeToLive));
+	}
+
+	/**
+	 * Settings of a single cache, unset settings being taken from the defaults.
+	 */
+	public static class Spec {
+
+		/**
+		 * Maximum number of entries kept on the heap.
+		 */
+		@Nullable
+		private Long heapEntries;
+
+		/**
+		 * Size of the off-heap tier, or zero to keep all entries on the heap. Values
+		 * stored off-heap must be serializable.
+		 */
+		@Nullable
+		private DataSize offHeapSize;
+
+		/**
+		 * Time after which an entry expires, counted from when it was stored, or zero for
+		 * entries that never expire.
+		 */
+		@Nullable
+		private Duration timeToLive;
+
+		public Spec() {
+		}
+
+		Spec(Long heapEntries, DataSize offHeapSize, Duration timeToLive) {
+			this.heapEntries = heapEntries;
+			this.offHeapSize = offHeapSize;
+			this.timeToLive = timeToLive;
+		}
+
+		@Nullable
+		public Long getHeapEntries() {
+			return this.heapEntries;
+		}
+
+		public void setHeapEntries(@Nullable Long heapEntries) {
+			this.heapEntries = heapEntries;
+		}
+
+		@Nullable
+		public DataSize getOffHeapSize() {
+			return this.offHeapSize;
+		}
+
+		public void setOffHeapSize(@Nullable DataSize offHeapSize) {
+			this.offHeapSize = offHeapSize;
+		}
+
+		@Nullable
+		public Duration getTimeToLive() {
+			return this.timeToLive;
+		}
+
+		public void setTimeToLive(@Nullable Duration timeToLive) {
+			this.timeToLive = timeToLive;
+		}
+
+	}
+
+}
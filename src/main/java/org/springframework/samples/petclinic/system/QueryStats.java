@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Counts the SQL statements, entity loads and collection fetches issued by Hibernate
+ * while handling the current request, so that N+1 select patterns can be spotted.
+ * Statements are also counted by shape: the SQL text, with the parameter lists of
+ * <code>IN</code> clauses collapsed, so that the same query for different ids counts as
+ * the same shape.
+ *
+ * @see QueryStatsFilter
+ * @see QueryStatsHibernateListener
+ */
+final class QueryStats {
+
+	private static final ThreadLocal<QueryStats> current = new ThreadLocal<>();
+
+	private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+	private final Map<String, Integer> shapes = new HashMap<>();
+
+	private int statements;
+
+	private int entityLoads;
+
+	private int collectionFetches;
+
+	/**
+	 * Start counting for the current thread.
+	 */
+	static QueryStats start() {
+		QueryStats stats = new QueryStats();
+		current.set(stats);
+		return stats;
+	}
+
+	/**
+	 * Stop counting for the current thread.
+	 */
+	static void stop() {
+		current.remove();
+	}
+
+	@Nullable
+	static QueryStats current() {
+		return current.get();
+	}
+
+	void statementPrepared(String sql) {
+		this.statements++;
+		this.shapes.merge(IN_LIST.matcher(sql).replaceAll("(...)"), 1, Integer::sum);
+	}
+
+	void entityLoaded() {
+		this.entityLoads++;
+	}
+
+	void collectionFetched() {
+		this.collectionFetches++;
+	}
+
+	int getStatements() {
+		return this.statements;
+	}
+
+	int getEntityLoads() {
+		return this.entityLoads;
+	}
+
+	int getCollectionFetches() {
+		return this.collectionFetches;
+	}
+
+	/**
+	 * Return the statement shape issued the most times, if any.
+	 */
+	@Nullable
+	Map.Entry<String, Integer> getMostRepeatedStatement() {
+		return this.shapes.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+	}
+
+}
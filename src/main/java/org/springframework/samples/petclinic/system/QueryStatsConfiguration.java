@@ -0,0 +1,60 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.List;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Counts the SQL statements, entity loads and collection fetches of every request, see
+ * {@link QueryStatsFilter}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(QueryStatsProperties.class)
+class QueryStatsConfiguration {
+
+	@Bean
+	public HibernatePropertiesCustomizer queryStatsHibernateCustomizer() {
+		QueryStatsHibernateListener listener = new QueryStatsHibernateListener();
+		return (properties) -> {
+			properties.put(AvailableSettings.STATEMENT_INSPECTOR, listener);
+			properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+					(IntegratorProvider) () -> List.of(listener));
+		};
+	}
+
+	@Bean
+	public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(QueryStatsProperties properties,
+			MeterRegistry registry) {
+		FilterRegistrationBean<QueryStatsFilter> registration = new FilterRegistrationBean<>(
+				new QueryStatsFilter(properties, registry));
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+		return registration;
+	}
+
+}
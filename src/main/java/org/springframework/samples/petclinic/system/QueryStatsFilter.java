@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPattern;
+
+/**
+ * Collects the {@link QueryStats} of each request and records them in the
+ * <code>petclinic.requests.*</code> distribution summaries, tagged with the matched
+ * route. Logs a warning when a request issues too many statements, or the same statement
+ * too many times, and optionally reports the counts in the response headers, except on
+ * the streamed paths.
+ */
+class QueryStatsFilter extends OncePerRequestFilter {
+
+	static final String STATEMENTS_HEADER = "X-SQL-Statement-Count";
+
+	static final String ENTITY_LOADS_HEADER = "X-Entity-Load-Count";
+
+	static final String COLLECTION_FETCHES_HEADER = "X-Collection-Fetch-Count";
+
+	private static final Log logger = LogFactory.getLog(QueryStatsFilter.class);
+
+	private final QueryStatsProperties properties;
+
+	private final MeterRegistry registry;
+
+	private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+	QueryStatsFilter(QueryStatsProperties properties, MeterRegistry registry) {
+		this.properties = properties;
+		this.registry = registry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		QueryStats stats = QueryStats.start();
+		HeaderWritingResponse buffered = (this.properties.isResponseHeaders() && !isStreamed(request)
+				? new HeaderWritingResponse(response, stats) : null);
+		try {
+			chain.doFilter(request, (buffered != null) ? buffered : response);
+		}
+		finally {
+			QueryStats.stop();
+			report(request, stats);
+			if (buffered != null) {
+				buffered.writeHeaders();
+				buffered.copyBodyToResponse();
+			}
+		}
+	}
+
+	private boolean isStreamed(HttpServletRequest request) {
+		return this.properties.getStreamedPaths().contains(this.urlPathHelper.getPathWithinApplication(request));
+	}
+
+	private void report(HttpServletRequest request, QueryStats stats) {
+		Object pattern = request.getAttribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE);
+		if (!(pattern instanceof PathPattern) && stats.getStatements() == 0) {
+			return;
+		}
+		String route = (pattern instanceof PathPattern) ? ((PathPattern) pattern).getPatternString() : "UNKNOWN";
+		record("petclinic.requests.statements", "SQL statements issued per request", route, stats.getStatements());
+		record("petclinic.requests.entity.loads", "Entities loaded per request", route, stats.getEntityLoads());
+		record("petclinic.requests.collection.fetches", "Collections fetched per request", route,
+				stats.getCollectionFetches());
+
+		Map.Entry<String, Integer> repeated = stats.getMostRepeatedStatement();
+		if (stats.getStatements() > this.properties.getMaxStatements()
+				|| (repeated != null && repeated.getValue() >= this.properties.getMaxRepeats())) {
+			logger.warn(String.format(
+					"%s %s issued %d SQL statements (%d entity loads, %d collection fetches), "
+							+ "the most repeated one %d times: %s",
+					request.getMethod(), route, stats.getStatements(), stats.getEntityLoads(),
+					stats.getCollectionFetches(), repeated.getValue(), repeated.getKey()));
+		}
+	}
+
+	private void record(String name, String description, String route, int amount) {
+		DistributionSummary.builder(name).description(description).tag("route", route).register(this.registry)
+				.record(amount);
+	}
+
+	/**
+	 * Buffers the response so that the counts, only known once the view has been
+	 * rendered, can still be sent as headers.
+	 */
+	private static class HeaderWritingResponse extends ContentCachingResponseWrapper {
+
+		private final QueryStats stats;
+
+		HeaderWritingResponse(HttpServletResponse response, QueryStats stats) {
+			super(response);
+			this.stats = stats;
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			writeHeaders();
+			super.sendRedirect(location);
+		}
+
+		void writeHeaders() {
+			if (!isCommitted()) {
+				setHeader(STATEMENTS_HEADER, String.valueOf(this.stats.getStatements()));
+				setHeader(ENTITY_LOADS_HEADER, String.valueOf(this.stats.getEntityLoads()));
+				setHeader(COLLECTION_FETCHES_HEADER, String.valueOf(this.stats.getCollectionFetches()));
+			}
+		}
+
+	}
+
+}
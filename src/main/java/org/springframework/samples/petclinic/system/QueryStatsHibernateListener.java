@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Feeds the {@link QueryStats} of the current request from Hibernate: statements through
+ * the {@link StatementInspector}, entity loads and collection fetches through event
+ * listeners registered by the {@link Integrator}.
+ */
+class QueryStatsHibernateListener
+		implements Integrator, StatementInspector, PostLoadEventListener, InitializeCollectionEventListener {
+
+	@Override
+	public String inspect(String sql) {
+		QueryStats stats = QueryStats.current();
+		if (stats != null) {
+			stats.statementPrepared(sql);
+		}
+		return sql;
+	}
+
+	@Override
+	public void onPostLoad(PostLoadEvent event) {
+		QueryStats stats = QueryStats.current();
+		if (stats != null) {
+			stats.entityLoaded();
+		}
+	}
+
+	@Override
+	public void onInitializeCollection(InitializeCollectionEvent event) {
+		QueryStats stats = QueryStats.current();
+		if (stats != null) {
+			stats.collectionFetched();
+		}
+	}
+
+	@Override
+	public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+			SessionFactoryServiceRegistry serviceRegistry) {
+		EventListenerRegistry listeners = serviceRegistry.getService(EventListenerRegistry.class);
+		listeners.appendListeners(EventType.POST_LOAD, this);
+		listeners.appendListeners(EventType.INIT_COLLECTION, this);
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Reporting of the SQL statements issued per request, bound from the
+ * <code>petclinic.query-stats</code> properties.
+ */
+@ConfigurationProperties("petclinic.query-stats")
+public class QueryStatsProperties {
+
+	/**
+	 * Whether to add the statement, entity load and collection fetch counts to the
+	 * response headers. Responses are buffered to do so, so this is meant for development
+	 * and tests.
+	 */
+	private boolean responseHeaders;
+
+	/**
+	 * Paths of the streamed responses, which are never buffered and so never get the
+	 * count headers.
+	 */
+	private List<String> streamedPaths = new ArrayList<>(List.of("/owners/export"));
+
+	/**
+	 * Number of statements per request above which a warning is logged.
+	 */
+	private int maxStatements = 20;
+
+	/**
+	 * Number of times a single statement shape may be issued per request before a
+	 * possible N+1 select is logged.
+	 */
+	private int maxRepeats = 5;
+
+	public boolean isResponseHeaders() {
+		return this.responseHeaders;
+	}
+
+	public void setResponseHeaders(boolean responseHeaders) {
+		this.responseHeaders = responseHeaders;
+	}
+
+	public List<String> getStreamedPaths() {
+		return this.streamedPaths;
+	}
+
+	public void setStreamedPaths(List<String> streamedPaths) {
+		this.streamedPaths = streamedPaths;
+	}
+
+	public int getMaxStatements() {
+		return this.maxStatements;
+	}
+
+	public void setMaxStatements(int maxStatements) {
+		this.maxStatements = maxStatements;
+	}
+
+	public int getMaxRepeats() {
+		return this.maxRepeats;
+	}
+
+	public void setMaxRepeats(int maxRepeats) {
+		this.maxRepeats = maxRepeats;
+	}
+
+}
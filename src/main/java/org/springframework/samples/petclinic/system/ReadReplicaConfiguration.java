@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.samples.petclinic.system.ReplicaDataSourceProperties.Replica;
+import org.springframework.util.StringUtils;
+
+/**
+ * Data source configuration used when read replicas are configured: read-only
+ * transactions, such as the finder methods of the repositories, are served by the
+ * replicas while everything else goes to the main data source described by the
+ * <code>spring.datasource</code> properties.
+ * <p>
+ * The primary and the replicas are Hikari pools, all configured with the
+ * <code>spring.datasource.hikari</code> properties. Open-in-view is turned off by the
+ * {@link ReadReplicaEnvironmentPostProcessor}.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "petclinic.datasource.replicas[0]", name = "url")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+class ReadReplicaConfiguration {
+
+	/**
+	 * The data source used by the application. Fetching the actual connection is delayed
+	 * until the first statement, once the transaction is known to be read-only or not.
+	 */
+	@Bean
+	public DataSource dataSource(DataSourceProperties properties, ReplicaDataSourceProperties replicaProperties,
+			Environment environment) {
+		Binder binder = Binder.get(environment);
+		HikariDataSource primary = pool(binder, properties.initializeDataSourceBuilder());
+		if (StringUtils.hasText(properties.getName())) {
+			primary.setPoolName(properties.getName());
+		}
+		List<DataSource> replicas = new ArrayList<>(replicaProperties.getReplicas().size());
+		for (Replica replica : replicaProperties.getReplicas()) {
+			HikariDataSource pool = pool(binder, DataSourceBuilder.create(properties.getClassLoader())
+					.url(replica.getUrl())
+					.username((replica.getUsername() != null) ? replica.getUsername() : properties.determineUsername())
+					.password(
+							(replica.getPassword() != null) ? replica.getPassword() : properties.determinePassword()));
+			// pool names must stay unique, even when spring.datasource.hikari sets one
+			pool.setPoolName("replica-" + (replicas.size() + 1));
+			replicas.add(pool);
+		}
+		return new RoutingDataSourceProxy(new ReadReplicaRoutingDataSource(primary, replicas,
+				replicaProperties.getSelection(), replicaProperties.getRetryInterval()));
+	}
+
+	/**
+	 * Build a Hikari pool and bind the <code>spring.datasource.hikari</code> properties
+	 * to it, as the auto-configured data source would.
+	 */
+	private HikariDataSource pool(Binder binder, DataSourceBuilder<?> builder) {
+		HikariDataSource dataSource = builder.type(HikariDataSource.class).build();
+		binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+		return dataSource;
+	}
+
+	/**
+	 * {@link LazyConnectionDataSourceProxy} that closes the underlying data sources along
+	 * with the application context.
+	 */
+	static class RoutingDataSourceProxy extends LazyConnectionDataSourceProxy implements Closeable {
+
+		private final ReadReplicaRoutingDataSource routingDataSource;
+
+		RoutingDataSourceProxy(ReadReplicaRoutingDataSource routingDataSource) {
+			super(routingDataSource);
+			this.routingDataSource = routingDataSource;
+		}
+
+		@Override
+		public void close() {
+			this.routingDataSource.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link DataSource} that hands out connections to one of a set of read replicas for
+ * read-only transactions, and to the primary for everything else.
+ * <p>
+ * The transaction must be known to be read-only by the time the connection is fetched, so
+ * this data source is meant to be wrapped in a {@link LazyConnectionDataSourceProxy}. A
+ * replica that fails to hand out a connection is considered unhealthy: the primary is
+ * used instead, and the replica is skipped until the retry interval has elapsed.
+ * </p>
+ */
+public class ReadReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+	/**
+	 * How to pick the replica for a read-only transaction.
+	 */
+	public enum Selection {
+
+		/**
+		 * Use each replica in turn.
+		 */
+		ROUND_ROBIN,
+
+		/**
+		 * Use the replica with the fewest connections currently handed out.
+		 */
+		LEAST_CONNECTIONS
+
+	}
+
+	private static final Log logger = LogFactory.getLog(ReadReplicaRoutingDataSource.class);
+
+	private final DataSource primary;
+
+	private final List<Replica> replicas = new ArrayList<>();
+
+	private final Selection selection;
+
+	private final long retryIntervalNanos;
+
+	private final AtomicInteger nextReplica = new AtomicInteger();
+
+	public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Selection selection,
+			Duration retryInterval) {
+		this.primary = primary;
+		replicas.forEach((replica) -> this.replicas.add(new Replica(replica)));
+		this.selection = selection;
+		this.retryIntervalNanos = retryInterval.toNanos();
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return getConnection(DataSource::getConnection);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return getConnection((dataSource) -> dataSource.getConnection(username, password));
+	}
+
+	private Connection getConnection(ConnectionFactory connectionFactory) throws SQLException {
+		Replica replica = (TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? selectReplica() : null);
+		if (replica != null) {
+			try {
+				return replica.getConnection(connectionFactory);
+			}
+			catch (SQLException ex) {
+				replica.markUnhealthy(System.nanoTime() + this.retryIntervalNanos);
+				logger.warn("Read replica unavailable, falling back to the primary", ex);
+			}
+		}
+		return connectionFactory.getConnection(this.primary);
+	}
+
+	@Nullable
+	private Replica selectReplica() {
+		long now = System.nanoTime();
+		int size = this.replicas.size();
+		Replica selected = null;
+		if (this.selection == Selection.ROUND_ROBIN) {
+			int start = Math.floorMod(this.nextReplica.getAndIncrement(), Math.max(size, 1));
+			for (int i = 0; i < size && selected == null; i++) {
+				Replica replica = this.replicas.get((start + i) % size);
+				selected = (replica.isHealthy(now) ? replica : null);
+			}
+		}
+		else {
+			for (Replica replica : this.replicas) {
+				if (replica.isHealthy(now) && (selected == null || replica.active.get() < selected.active.get())) {
+					selected = replica;
+				}
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Return the number of connections currently handed out by each replica.
+	 */
+	public List<Integer> getActiveReplicaConnections() {
+		List<Integer> active = new ArrayList<>(this.replicas.size());
+		this.replicas.forEach((replica) -> active.add(replica.active.get()));
+		return active;
+	}
+
+	/**
+	 * Close the primary and the replicas, if they can be closed.
+	 */
+	@Override
+	public void close() {
+		closeIfPossible(this.primary);
+		this.replicas.forEach((replica) -> closeIfPossible(replica.dataSource));
+	}
+
+	private void closeIfPossible(DataSource dataSource) {
+		if (dataSource instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) dataSource).close();
+			}
+			catch (Exception ex) {
+				logger.warn("Could not close data source", ex);
+			}
+		}
+	}
+
+	/**
+	 * Fetches a connection from the primary or a replica, with or without explicit
+	 * credentials.
+	 */
+	@FunctionalInterface
+	private interface ConnectionFactory {
+
+		Connection getConnection(DataSource dataSource) throws SQLException;
+
+	}
+
+	private static final class Replica {
+
+		final DataSource dataSource;
+
+		final AtomicInteger active = new AtomicInteger();
+
+		volatile long unhealthyUntil;
+
+		volatile boolean unhealthy;
+
+		Replica(DataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		boolean isHealthy(long now) {
+			return !this.unhealthy || now - this.unhealthyUntil >= 0;
+		}
+
+		void markUnhealthy(long until) {
+			this.unhealthyUntil = until;
+			this.unhealthy = true;
+		}
+
+		/**
+		 * Fetch a connection, counting it as active until it is closed.
+		 */
+		Connection getConnection(ConnectionFactory connectionFactory) throws SQLException {
+			Connection connection = connectionFactory.getConnection(this.dataSource);
+			this.unhealthy = false;
+			this.active.incrementAndGet();
+			AtomicBoolean closed = new AtomicBoolean();
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+						if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+							this.active.decrementAndGet();
+						}
+						try {
+							return method.invoke(connection, args);
+						}
+						catch (InvocationTargetException ex) {
+							throw ex.getTargetException();
+						}
+					});
+		}
+
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.samples.petclinic.system.ReadReplicaRoutingDataSource.Selection;
+
+/**
+ * Read replicas of the main data source, bound from the <code>petclinic.datasource</code>
+ * properties. Read-only transactions are routed to the replicas as soon as at least one
+ * of them is configured.
+ */
+@ConfigurationProperties("petclinic.datasource")
+public class ReplicaDataSourceProperties {
+
+	/**
+	 * Connection settings of the replicas.
+	 */
+	private final List<Replica> replicas = new ArrayList<>();
+
+	/**
+	 * How to pick the replica for a read-only transaction.
+	 */
+	private Selection selection = Selection.ROUND_ROBIN;
+
+	/**
+	 * Time during which a replica that failed to hand out a connection is skipped.
+	 */
+	private Duration retryInterval = Duration.ofSeconds(30);
+
+	public List<Replica> getReplicas() {
+		return this.replicas;
+	}
+
+	public Selection getSelection() {
+		return this.selection;
+	}
+
+	public void setSelection(Selection selection) {
+		this.selection = selection;
+	}
+
+	public Duration getRetryInterval() {
+		return this.retryInterval;
+	}
+
+	public void setRetryInterval(Duration retryInterval) {
+		this.retryInterval = retryInterval;
+	}
+
+	/**
+	 * Connection settings of a single replica.
+	 */
+	public static class Replica {
+
+		/**
+		 * JDBC URL of the replica.
+		 */
+		private String url;
+
+		/**
+		 * Login username of the replica, defaults to the one of the main data source.
+		 */
+		private String username;
+
+		/**
+		 * Login password of the replica, defaults to the one of the main data source.
+		 */
+		private String password;
+
+		public String getUrl() {
+			return this.url;
+		}
+
+		public void setUrl(String url) {
+			this.url = url;
+		}
+
+		public String getUsername() {
+			return this.username;
+		}
+
+		public void setUsername(String username) {
+			this.username = username;
+		}
+
+		public String getPassword() {
+			return this.password;
+		}
+
+		public void setPassword(String password) {
+			this.password = password;
+		}
+
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Keeps track of the repository method being called by the current thread, so that the
+ * statements it issues can be attributed to it.
+ */
+class RepositoryMethodTracker implements MethodInterceptor {
+
+	private static final ThreadLocal<String> current = new ThreadLocal<>();
+
+	private final String repositoryName;
+
+	RepositoryMethodTracker(String repositoryName) {
+		this.repositoryName = repositoryName;
+	}
+
+	/**
+	 * Return the repository method being called, as
+	 * <code>RepositoryName.methodName</code>, or {@code null}.
+	 */
+	@Nullable
+	static String current() {
+		return current.get();
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		String outer = current.get();
+		current.set(this.repositoryName + "." + invocation.getMethod().getName());
+		try {
+			return invocation.proceed();
+		}
+		finally {
+			if (outer != null) {
+				current.set(outer);
+			}
+			else {
+				current.remove();
+			}
+		}
+	}
+
+}
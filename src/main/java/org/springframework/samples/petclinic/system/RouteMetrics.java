@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.function.HandlerFilterFunction;
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.util.pattern.PathPattern;
+
+/**
+ * Records the latency of the functional routes in the {@value #METRIC_NAME} timer, tagged
+ * with the pattern of the matched route, the HTTP method, the response status and the
+ * exception, if any.
+ * <p>
+ * Timing starts in the {@link HandlerFilterFunction}, once a route has matched, and stops
+ * in {@link #afterCompletion}, once the response is complete, so that the time spent
+ * rendering the view is included, along with its lazy loads when open-in-view is on.
+ * Percentiles and SLO buckets of the timer are configured with the
+ * <code>management.metrics.distribution</code> properties.
+ * </p>
+ */
+public class RouteMetrics implements HandlerFilterFunction<ServerResponse, ServerResponse>, HandlerInterceptor {
+
+	public static final String METRIC_NAME = "petclinic.routes";
+
+	private static final String SAMPLE_ATTRIBUTE = RouteMetrics.class.getName() + ".SAMPLE";
+
+	private final MeterRegistry registry;
+
+	public RouteMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public ServerResponse filter(ServerRequest request, HandlerFunction<ServerResponse> next) throws Exception {
+		request.attributes().putIfAbsent(SAMPLE_ATTRIBUTE, Timer.start(this.registry));
+		return next.handle(request);
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			@Nullable Exception ex) {
+		Object sample = request.getAttribute(SAMPLE_ATTRIBUTE);
+		if (sample instanceof Timer.Sample) {
+			request.removeAttribute(SAMPLE_ATTRIBUTE);
+			Timer timer = Timer.builder(METRIC_NAME).description("Latency of the functional routes")
+					.tags(tags(request, response, ex)).register(this.registry);
+			((Timer.Sample) sample).stop(timer);
+		}
+	}
+
+	private static Tags tags(HttpServletRequest request, HttpServletResponse response, @Nullable Exception ex) {
+		Object pattern = request.getAttribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE);
+		int status = response.getStatus();
+		if (ex != null && status < 400) {
+			// not handled yet, the container will answer with an error
+			status = 500;
+		}
+		return Tags.of("route",
+				(pattern instanceof PathPattern) ? ((PathPattern) pattern).getPatternString() : "UNKNOWN", "method",
+				request.getMethod(), "status", String.valueOf(status), "exception",
+				(ex != null) ? ex.getClass().getSimpleName() : "None");
+	}
+
+}
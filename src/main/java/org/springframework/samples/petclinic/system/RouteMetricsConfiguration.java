@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Applies {@link RouteMetrics} to every {@link RouterFunction} bean of the application.
+ */
+@Configuration(proxyBeanMethods = false)
+class RouteMetricsConfiguration {
+
+	@Bean
+	public RouteMetrics routeMetrics(MeterRegistry registry) {
+		return new RouteMetrics(registry);
+	}
+
+	@Bean
+	public WebMvcConfigurer routeMetricsInterceptor(RouteMetrics routeMetrics) {
+		return new WebMvcConfigurer() {
+
+			@Override
+			public void addInterceptors(InterceptorRegistry registry) {
+				registry.addInterceptor(routeMetrics);
+			}
+
+		};
+	}
+
+	@Bean
+	public static BeanPostProcessor routeMetricsFilter(ObjectProvider<RouteMetrics> routeMetrics) {
+		return new BeanPostProcessor() {
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof RouterFunction) {
+					return ((RouterFunction<ServerResponse>) bean).filter(routeMetrics.getObject());
+				}
+				return bean;
+			}
+
+		};
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Times the statements issued through the application {@link DataSource} and keeps the
+ * slowest ones in a {@link SlowQueryLog}, along with the repository method that issued
+ * them.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "petclinic.slow-queries.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(SlowQueryProperties.class)
+class SlowQueryConfiguration {
+
+	@Bean
+	public SlowQueryLog slowQueryLog(SlowQueryProperties properties) {
+		return new SlowQueryLog(properties.getCapacity(), properties.getThreshold());
+	}
+
+	@Bean
+	public SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog) {
+		return new SlowQueryEndpoint(slowQueryLog);
+	}
+
+	@Bean
+	public static BeanPostProcessor slowQueryDataSourceWrapper(ObjectProvider<SlowQueryLog> slowQueryLog) {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource && !(bean instanceof SlowQueryDataSource)) {
+					return new SlowQueryDataSource((DataSource) bean, slowQueryLog.getObject());
+				}
+				if (bean instanceof Repository && bean instanceof Advised) {
+					Advised repository = (Advised) bean;
+					Arrays.stream(repository.getProxiedInterfaces()).filter(Repository.class::isAssignableFrom)
+							.findFirst().ifPresent((type) -> repository.addAdvice(0,
+									new RepositoryMethodTracker(type.getSimpleName())));
+				}
+				return bean;
+			}
+
+		};
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link DataSource} that times every statement executed through its connections and
+ * reports the slow ones to a {@link SlowQueryLog}.
+ * <p>
+ * Connections and statements are wrapped in JDK proxies. The bind parameters of prepared
+ * statements are captured as they are set, and only turned into text for the statements
+ * that end up being recorded.
+ * </p>
+ */
+class SlowQueryDataSource extends DelegatingDataSource {
+
+	private final SlowQueryLog log;
+
+	SlowQueryDataSource(DataSource target, SlowQueryLog log) {
+		super(target);
+		this.log = log;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return proxy(Connection.class, super.getConnection(), this::invokeOnConnection);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return proxy(Connection.class, super.getConnection(username, password), this::invokeOnConnection);
+	}
+
+	private Object invokeOnConnection(Connection connection, Method method, @Nullable Object[] args) throws Throwable {
+		Object result = invoke(connection, method, args);
+		if (result instanceof Statement) {
+			Class<?> type = method.getReturnType();
+			String sql = (args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0] : null;
+			if (type == Statement.class || type == PreparedStatement.class || type == CallableStatement.class) {
+				return proxy(type, (Statement) result, new StatementHandler(sql));
+			}
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<?> type, T target, ProxyHandler<T> handler) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> handler.invoke(target, method, args));
+	}
+
+	private static Object invoke(Object target, Method method, @Nullable Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+	}
+
+	@FunctionalInterface
+	private interface ProxyHandler<T> {
+
+		Object invoke(T target, Method method, @Nullable Object[] args) throws Throwable;
+
+	}
+
+	/**
+	 * Captures the bind parameters of a statement and times its executions.
+	 */
+	private final class StatementHandler implements ProxyHandler<Statement> {
+
+		@Nullable
+		private final String preparedSql;
+
+		private final List<Object> parameters = new ArrayList<>();
+
+		private int batched;
+
+		private boolean parametersComplete;
+
+		StatementHandler(@Nullable String preparedSql) {
+			this.preparedSql = preparedSql;
+		}
+
+		@Override
+		public Object invoke(Statement statement, Method method, @Nullable Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+				setParameter((Integer) args[0], name.equals("setNull") ? null : args[1]);
+			}
+			else if (name.equals("addBatch")) {
+				this.batched++;
+				this.parametersComplete = true;
+			}
+			else if (name.equals("clearParameters")) {
+				this.parametersComplete = this.batched > 0;
+			}
+			else if (name.startsWith("execute")) {
+				String sql = (args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0]
+						: this.preparedSql;
+				long start = System.nanoTime();
+				try {
+					return SlowQueryDataSource.invoke(statement, method, args);
+				}
+				finally {
+					long elapsed = System.nanoTime() - start;
+					if (sql != null && SlowQueryDataSource.this.log.isSlow(elapsed)) {
+						boolean batch = name.equals("executeBatch") || name.equals("executeLargeBatch");
+						SlowQueryDataSource.this.log.record(sql, this.parameters, batch ? this.batched : 1, elapsed);
+					}
+					if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+						this.batched = 0;
+						this.parametersComplete = false;
+						this.parameters.clear();
+					}
+				}
+			}
+			return SlowQueryDataSource.invoke(statement, method, args);
+		}
+
+		/**
+		 * Keep the parameters of the first row of a batch only.
+		 */
+		private void setParameter(int index, @Nullable Object value) {
+			if (this.parametersComplete) {
+				return;
+			}
+			while (this.parameters.size() < index) {
+				this.parameters.add(null);
+			}
+			this.parameters.set(index - 1, value);
+		}
+
+	}
+
+}
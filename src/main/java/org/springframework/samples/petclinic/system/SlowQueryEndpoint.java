@@ -0,0 +1,49 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Actuator endpoint listing the slowest SQL statements recorded by the
+ * {@link SlowQueryLog}, exposed at <code>/manage/slowqueries</code>. A
+ * <code>DELETE</code> starts over.
+ */
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+	private final SlowQueryLog log;
+
+	public SlowQueryEndpoint(SlowQueryLog log) {
+		this.log = log;
+	}
+
+	@ReadOperation
+	public List<SlowQueryLog.Entry> slowQueries() {
+		return this.log.getEntries();
+	}
+
+	@DeleteOperation
+	public void clear() {
+		this.log.clear();
+	}
+
+}
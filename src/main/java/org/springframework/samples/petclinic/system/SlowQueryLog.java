@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Bounded log of the slowest SQL statements, with their bind parameters and the
+ * repository method that issued them.
+ * <p>
+ * The log keeps the given number of statements: once it is full, a statement is only
+ * admitted if it is slower than the fastest one recorded, which it then replaces. Since
+ * the time to beat is read without locking, statements that are not slow enough cost a
+ * single comparison.
+ * </p>
+ *
+ * @see SlowQueryDataSource
+ */
+public class SlowQueryLog {
+
+	private static final int MAX_PARAMETER_LENGTH = 100;
+
+	private final int capacity;
+
+	private final long thresholdNanos;
+
+	private final PriorityQueue<Entry> entries;
+
+	private volatile long minimumNanos;
+
+	public SlowQueryLog(int capacity, Duration threshold) {
+		this.capacity = capacity;
+		this.thresholdNanos = threshold.toNanos();
+		this.entries = new PriorityQueue<>(capacity + 1, Comparator.comparingLong((entry) -> entry.elapsedNanos));
+		this.minimumNanos = this.thresholdNanos;
+	}
+
+	/**
+	 * Whether a statement that took the given time would be recorded.
+	 */
+	boolean isSlow(long elapsedNanos) {
+		return elapsedNanos >= this.minimumNanos && this.capacity > 0;
+	}
+
+	/**
+	 * Record a statement, if it is slow enough.
+	 * @param sql the SQL of the statement
+	 * @param parameters the bind parameters, by position, of the first execution
+	 * @param executions the number of times the statement was executed, as a batch
+	 * @param elapsedNanos the time the statement took
+	 */
+	void record(String sql, List<Object> parameters, int executions, long elapsedNanos) {
+		if (!isSlow(elapsedNanos)) {
+			return;
+		}
+		Entry entry = new Entry(sql, describe(parameters), executions, RepositoryMethodTracker.current(), elapsedNanos);
+		synchronized (this.entries) {
+			this.entries.add(entry);
+			if (this.entries.size() > this.capacity) {
+				this.entries.poll();
+			}
+			if (this.entries.size() == this.capacity) {
+				this.minimumNanos = Math.max(this.thresholdNanos, this.entries.peek().elapsedNanos);
+			}
+		}
+	}
+
+	/**
+	 * Return the recorded statements, the slowest first.
+	 */
+	public List<Entry> getEntries() {
+		List<Entry> entries;
+		synchronized (this.entries) {
+			entries = new ArrayList<>(this.entries);
+		}
+		entries.sort(Collections.reverseOrder(this.entries.comparator()));
+		return entries;
+	}
+
+	/**
+	 * Discard all the recorded statements.
+	 */
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+			this.minimumNanos = this.thresholdNanos;
+		}
+	}
+
+	private static List<String> describe(List<Object> parameters) {
+		List<String> described = new ArrayList<>(parameters.size());
+		for (Object parameter : parameters) {
+			String value = String.valueOf(parameter);
+			described.add(
+					(value.length() > MAX_PARAMETER_LENGTH) ? value.substring(0, MAX_PARAMETER_LENGTH) + "..." : value);
+		}
+		return described;
+	}
+
+	/**
+	 * A recorded statement.
+	 */
+	public static final class Entry {
+
+		private final String sql;
+
+		private final List<String> parameters;
+
+		private final int executions;
+
+		@Nullable
+		private final String repositoryMethod;
+
+		private final long elapsedNanos;
+
+		private final Instant timestamp = Instant.now();
+
+		Entry(String sql, List<String> parameters, int executions, @Nullable String repositoryMethod,
+				long elapsedNanos) {
+			this.sql = sql;
+			this.parameters = parameters;
+			this.executions = executions;
+			this.repositoryMethod = repositoryMethod;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		public String getSql() {
+			return this.sql;
+		}
+
+		public List<String> getParameters() {
+			return this.parameters;
+		}
+
+		public int getExecutions() {
+			return this.executions;
+		}
+
+		/**
+		 * Return the repository method that issued the statement, or {@code null} if it
+		 * was issued outside of a repository call, such as a lazy association fetched
+		 * while rendering a view with open-in-view on.
+		 */
+		@Nullable
+		public String getRepositoryMethod() {
+			return this.repositoryMethod;
+		}
+
+		public Duration getElapsed() {
+			return Duration.ofNanos(this.elapsedNanos);
+		}
+
+		public Instant getTimestamp() {
+			return this.timestamp;
+		}
+
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Recording of the slowest SQL statements, bound from the
+ * <code>petclinic.slow-queries</code> properties.
+ */
+@ConfigurationProperties("petclinic.slow-queries")
+public class SlowQueryProperties {
+
+	/**
+	 * Whether to time the statements issued through the data source.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Number of statements kept, the slowest ones win.
+	 */
+	private int capacity = 50;
+
+	/**
+	 * Time below which a statement is not worth recording.
+	 */
+	private Duration threshold = Duration.ofMillis(10);
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public Duration getThreshold() {
+		return this.threshold;
+	}
+
+	public void setThreshold(Duration threshold) {
+		this.threshold = threshold;
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import java.io.Serializable;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * The list of vets already serialized to JSON and XML, along with a strong entity tag for
+ * each of the two bodies.
+ */
+public final class RenderedVetList implements Serializable {
+
+	private final byte[] json;
+
+	private final String jsonETag;
+
+	private final byte[] xml;
+
+	private final String xmlETag;
+
+	RenderedVetList(byte[] json, byte[] xml) {
+		this.json = json;
+		this.jsonETag = eTag(json);
+		this.xml = xml;
+		this.xmlETag = eTag(xml);
+	}
+
+	private static String eTag(byte[] body) {
+		return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+	}
+
+	public byte[] getJson() {
+		return this.json;
+	}
+
+	public String getJsonETag() {
+		return this.jsonETag;
+	}
+
+	public byte[] getXml() {
+		return this.xml;
+	}
+
+	public String getXmlETag() {
+		return this.xmlETag;
+	}
+
+}
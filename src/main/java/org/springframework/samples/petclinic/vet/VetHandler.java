@@ -19,6 +19,9 @@ import static org.springframework.web.servlet.function.ServerResponse.ok;
 
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.support.ConditionalRequests;
 import org.springframework.web.servlet.function.ServerRequest;
 import org.springframework.web.servlet.function.ServerResponse;
 
@@ -31,8 +34,11 @@ public class VetHandler {
 
 	private final VetRepository vets;
 
-	public VetHandler(VetRepository vets) {
+	private final VetListRenderer renderer;
+
+	public VetHandler(VetRepository vets, VetListRenderer renderer) {
 		this.vets = vets;
+		this.renderer = renderer;
 	}
 
 	public ServerResponse showVetList(ServerRequest request) {
@@ -40,7 +46,25 @@ public class VetHandler {
 	}
 
 	public ServerResponse showResourcesVetList(ServerRequest request) {
-		return ok().body(allVets());
+		RenderedVetList vets = this.renderer.render();
+		return resource(request, MediaType.APPLICATION_JSON, vets.getJson(), vets.getJsonETag());
+	}
+
+	public ServerResponse showXmlResourcesVetList(ServerRequest request) {
+		RenderedVetList vets = this.renderer.render();
+		return resource(request, MediaType.APPLICATION_XML, vets.getXml(), vets.getXmlETag());
+	}
+
+	/**
+	 * Answer with the given representation of the vet list. The JSON and XML ones are
+	 * served from the same URL with different entity tags, so caches must key them by the
+	 * <code>Accept</code> header.
+	 */
+	private ServerResponse resource(ServerRequest request, MediaType contentType, byte[] body, String eTag) {
+		if (ConditionalRequests.isNotModified(request, eTag)) {
+			return ConditionalRequests.notModified(eTag, HttpHeaders.ACCEPT);
+		}
+		return ok().contentType(contentType).eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(body);
 	}
 
 	private Vets allVets() {
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.cache.annotation.Cacheable;
+
+/**
+ * Serializes the list of vets once and caches the result, so that the vet resources can
+ * be served without querying the repository or running the serializers on every request.
+ */
+public class VetListRenderer {
+
+	private final VetRepository vets;
+
+	private final ObjectMapper objectMapper;
+
+	private final JAXBContext jaxbContext;
+
+	public VetListRenderer(VetRepository vets, ObjectMapper objectMapper) {
+		this.vets = vets;
+		this.objectMapper = objectMapper;
+		try {
+			this.jaxbContext = JAXBContext.newInstance(Vets.class);
+		}
+		catch (JAXBException ex) {
+			throw new IllegalStateException("Could not create JAXB context for " + Vets.class, ex);
+		}
+	}
+
+	@Cacheable("renderedVets")
+	public RenderedVetList render() {
+		// Here we are serializing an object of type 'Vets' rather than a collection of
+		// Vet objects so it is simpler for Object-Xml mapping
+		Vets vets = new Vets(this.vets.findAll());
+		return new RenderedVetList(toJson(vets), toXml(vets));
+	}
+
+	private byte[] toJson(Vets vets) {
+		try {
+			return this.objectMapper.writeValueAsBytes(vets);
+		}
+		catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Could not write vets as JSON", ex);
+		}
+	}
+
+	private byte[] toXml(Vets vets) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			this.jaxbContext.createMarshaller().marshal(vets, out);
+			return out.toByteArray();
+		}
+		catch (JAXBException ex) {
+			throw new IllegalStateException("Could not write vets as XML", ex);
+		}
+	}
+
+}
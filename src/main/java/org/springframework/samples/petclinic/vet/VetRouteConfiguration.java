@@ -15,11 +15,14 @@
  */
 package org.springframework.samples.petclinic.vet;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.function.RouterFunction;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_XML;
 import static org.springframework.web.servlet.function.RequestPredicates.*;
 import static org.springframework.web.servlet.function.RouterFunctions.route;
 
@@ -32,13 +35,19 @@ import static org.springframework.web.servlet.function.RouterFunctions.route;
 public class VetRouteConfiguration {
 
 	@Bean
-	public VetHandler vetHandler(VetRepository repository) {
-		return new VetHandler(repository);
+	public VetListRenderer vetListRenderer(VetRepository repository, ObjectMapper objectMapper) {
+		return new VetListRenderer(repository, objectMapper);
+	}
+
+	@Bean
+	public VetHandler vetHandler(VetRepository repository, VetListRenderer renderer) {
+		return new VetHandler(repository, renderer);
 	}
 
 	@Bean
 	public RouterFunction<?> vetRouterFunction(VetHandler handler) {
 		return route().GET("/vets", accept(APPLICATION_JSON), handler::showResourcesVetList)
+				.GET("/vets", accept(APPLICATION_XML), handler::showXmlResourcesVetList)
 				.GET("/vets.html", handler::showVetList).build();
 	}
 
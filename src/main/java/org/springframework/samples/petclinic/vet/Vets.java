@@ -38,6 +38,14 @@ public class Vets {
 		this.vets = List.copyOf(vets);
 	}
 
+	/**
+	 * Constructor required by JAXB.
+	 */
+	@SuppressWarnings("unused")
+	private Vets() {
+		this.vets = List.of();
+	}
+
 	@XmlElement
 	public List<Vet> getVetList() {
 		return vets;
@@ -16,6 +16,7 @@
 package org.springframework.samples.petclinic.visit;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -35,6 +36,15 @@ import org.springframework.samples.petclinic.model.BaseEntity;
 @Table(name = "visits")
 public class Visit extends BaseEntity {
 
+	/**
+	 * Orders visits from the most recent to the oldest, then by descending id, with
+	 * undated visits last. Matches the order of the visit history queries of
+	 * {@link VisitRepository}.
+	 */
+	public static final Comparator<Visit> MOST_RECENT_FIRST = Comparator
+			.comparing(Visit::getDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder())).reversed()
+			.thenComparing(Visit::getId, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()).reversed());
+
 	@Column(name = "visit_date")
 	@DateTimeFormat(pattern = "yyyy-MM-dd")
 	private LocalDate date;
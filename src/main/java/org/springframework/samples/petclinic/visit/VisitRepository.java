@@ -15,11 +15,17 @@
  */
 package org.springframework.samples.petclinic.visit;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.BaseEntity;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository class for <code>Visit</code> domain objects All method names are compliant
@@ -41,6 +47,98 @@ public interface VisitRepository extends Repository<Visit, Integer> {
 	 */
 	void save(Visit visit) throws DataAccessException;
 
+	/**
+	 * Save all the given <code>Visit</code>s in a single transaction. New visits are
+	 * inserted in JDBC batches.
+	 * @param visits the <code>Visit</code>s to save
+	 * @see BaseEntity#ID_ALLOCATION_SIZE
+	 */
+	void saveAll(Iterable<Visit> visits) throws DataAccessException;
+
 	List<Visit> findByPetId(Integer petId);
 
+	/**
+	 * Retrieve the most recent <code>Visit</code>s of a pet, ordered by date and id in
+	 * descending order, undated visits coming last.
+	 * @param petId the id of the pet
+	 * @param pageable the number of visits to return, the offset is always expected to be
+	 * zero
+	 * @return the most recent visits of the pet
+	 */
+	@Query("SELECT visit FROM Visit visit WHERE visit.petId = :petId"
+			+ " ORDER BY visit.date DESC NULLS LAST, visit.id DESC")
+	@Transactional(readOnly = true)
+	List<Visit> findMostRecentByPetId(@Param("petId") Integer petId, Pageable pageable);
+
+	/**
+	 * Retrieve the <code>Visit</code>s of a pet that sort after the given dated keyset
+	 * position, ordered by date and id in descending order, undated visits coming last.
+	 * @param petId the id of the pet
+	 * @param beforeDate date of the keyset position
+	 * @param beforeId id of the keyset position
+	 * @param pageable the number of visits to return, the offset is always expected to be
+	 * zero
+	 * @return the older visits of the pet
+	 */
+	@Query("SELECT visit FROM Visit visit WHERE visit.petId = :petId AND (visit.date < :beforeDate"
+			+ " OR (visit.date = :beforeDate AND visit.id < :beforeId) OR visit.date IS NULL)"
+			+ " ORDER BY visit.date DESC NULLS LAST, visit.id DESC")
+	@Transactional(readOnly = true)
+	List<Visit> findByPetIdBefore(@Param("petId") Integer petId, @Param("beforeDate") LocalDate beforeDate,
+			@Param("beforeId") Integer beforeId, Pageable pageable);
+
+	/**
+	 * Retrieve the undated <code>Visit</code>s of a pet that sort after the given undated
+	 * keyset position, ordered by id in descending order.
+	 * @param petId the id of the pet
+	 * @param beforeId id of the keyset position
+	 * @param pageable the number of visits to return, the offset is always expected to be
+	 * zero
+	 * @return the older undated visits of the pet
+	 */
+	@Query("SELECT visit FROM Visit visit WHERE visit.petId = :petId AND visit.date IS NULL AND visit.id < :beforeId"
+			+ " ORDER BY visit.id DESC")
+	@Transactional(readOnly = true)
+	List<Visit> findUndatedByPetIdBefore(@Param("petId") Integer petId, @Param("beforeId") Integer beforeId,
+			Pageable pageable);
+
+	/**
+	 * Retrieve the dated <code>Visit</code>s of a pet that sort before the given dated
+	 * keyset position, ordered by date and id in <i>ascending</i> order.
+	 * @param petId the id of the pet
+	 * @param afterDate date of the keyset position
+	 * @param afterId id of the keyset position
+	 * @param pageable the number of visits to return, the offset is always expected to be
+	 * zero
+	 * @return the more recent visits of the pet, oldest first
+	 */
+	@Query("SELECT visit FROM Visit visit WHERE visit.petId = :petId AND (visit.date > :afterDate"
+			+ " OR (visit.date = :afterDate AND visit.id > :afterId)) ORDER BY visit.date, visit.id")
+	@Transactional(readOnly = true)
+	List<Visit> findByPetIdAfter(@Param("petId") Integer petId, @Param("afterDate") LocalDate afterDate,
+			@Param("afterId") Integer afterId, Pageable pageable);
+
+	/**
+	 * Retrieve the <code>Visit</code>s of a pet that sort before the given undated keyset
+	 * position, ordered by date and id in <i>ascending</i> order, undated visits coming
+	 * first.
+	 * @param petId the id of the pet
+	 * @param afterId id of the keyset position
+	 * @param pageable the number of visits to return, the offset is always expected to be
+	 * zero
+	 * @return the more recent visits of the pet, oldest first
+	 */
+	@Query("SELECT visit FROM Visit visit WHERE visit.petId = :petId"
+			+ " AND (visit.date IS NOT NULL OR visit.id > :afterId) ORDER BY visit.date NULLS FIRST, visit.id")
+	@Transactional(readOnly = true)
+	List<Visit> findByPetIdAfterUndated(@Param("petId") Integer petId, @Param("afterId") Integer afterId,
+			Pageable pageable);
+
+	/**
+	 * Retrieve the <code>Visit</code>s of all the given pets in a single query.
+	 * @param petIds the ids of the pets
+	 * @return the visits of those pets, to be grouped by {@link Visit#getPetId()}
+	 */
+	List<Visit> findByPetIdIn(Collection<Integer> petIds);
+
 }
@@ -13,12 +13,30 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.springframework.samples.petclinic;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetRepository;
 import org.springframework.samples.petclinic.vet.VetRepository;
 
 @SpringBootTest
@@ -27,10 +45,65 @@ class PetclinicIntegrationTests {
 	@Autowired
 	private VetRepository vets;
 
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private PetRepository pets;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private CacheManager cacheManager;
+
 	@Test
 	void testFindAll() throws Exception {
 		vets.findAll();
 		vets.findAll(); // served from cache
 	}
 
+	@Test
+	void testVetsCacheIsBoundedAndExpires() {
+		CacheRuntimeConfiguration<Object, Object> configuration = cacheConfiguration("vets");
+		assertThat(configuration.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(10);
+		assertThat(configuration.getResourcePools().getPoolForResource(ResourceType.Core.HEAP).getUnit())
+				.isEqualTo(EntryUnit.ENTRIES);
+		assertThat(configuration.getResourcePools().getPoolForResource(ResourceType.Core.OFFHEAP).getSize())
+				.isEqualTo(4);
+		assertThat(configuration.getResourcePools().getPoolForResource(ResourceType.Core.OFFHEAP).getUnit())
+				.isEqualTo(MemoryUnit.MB);
+		ExpiryPolicy<? super Object, ? super Object> expiry = configuration.getExpiryPolicy();
+		assertThat(expiry.getExpiryForCreation("key", "value")).isEqualTo(Duration.ofHours(1));
+		assertThat(cacheConfiguration("renderedVets").getResourcePools().getPoolForResource(ResourceType.Core.HEAP)
+				.getSize()).isEqualTo(1);
+	}
+
+	@Test
+	void testOwnersAndPetsAreKeptInSecondLevelCache() {
+		Owner owner = this.owners.findById(3).get();
+		this.pets.findById(owner.getPets().get(0).getId());
+
+		Cache cache = this.entityManagerFactory.unwrap(SessionFactory.class).getCache();
+		assertThat(cache.containsEntity(Owner.class, 3)).isTrue();
+		assertThat(cache.containsCollection(Owner.class.getName() + ".pets", 3)).isTrue();
+		assertThat(cache.containsEntity(Pet.class, owner.getPets().get(0).getId())).isTrue();
+		assertThat(this.cacheManager.getCache("default-query-results-region").iterator()).hasNext();
+	}
+
+	@Test
+	void testOwnersFromQueryCacheComeWithTheirPets() {
+		int petCount = this.owners.findById(6).get().getPets().size();
+		// served from the query cache, outside of any transaction: pets that were
+		// left uninitialized would fail to load
+		assertThat(this.owners.findById(6).get().getPets()).hasSize(petCount).isNotEmpty();
+	}
+
+	@SuppressWarnings("unchecked")
+	private CacheRuntimeConfiguration<Object, Object> cacheConfiguration(String name) {
+		Eh107Configuration<Object, Object> configuration = this.cacheManager.getCache(name)
+				.getConfiguration(Eh107Configuration.class);
+		return configuration.unwrap(CacheRuntimeConfiguration.class);
+	}
+
 }
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.lang.Nullable;
+
+/**
+ * Open-loop HTTP load driver, replaying a weighted mix of the application routes against
+ * a running instance at a constant arrival rate.
+ * <p>
+ * Requests are sent on schedule whether or not the previous ones have completed, and
+ * latencies are measured from the time a request was scheduled to go out, so that a slow
+ * server does not hide its queueing delay by slowing the driver down. Latencies are
+ * recorded in HdrHistograms, see {@link LoadReport}.
+ * </p>
+ * Run it against a started application with:
+ *
+ * <pre class="code">
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=org.springframework.samples.petclinic.loadtest.LoadDriver \
+ *   -Dexec.args="--url=http://localhost:8080 --rate=200 --warmup=10s --duration=60s"
+ * </pre>
+ */
+public class LoadDriver {
+
+	/**
+	 * The replayed routes, with their default share of the requests.
+	 */
+	public enum Route {
+
+		/**
+		 * <code>GET /owners?lastName=</code>.
+		 */
+		FIND_OWNERS("findOwners", 30) {
+			@Override
+			HttpRequest.Builder request(Options options, SplittableRandom random) {
+				String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+				return get(options, "/owners?lastName=" + URLEncoder.encode(lastName, StandardCharsets.UTF_8));
+			}
+		},
+
+		/**
+		 * <code>GET /owners/{ownerId}</code>.
+		 */
+		SHOW_OWNER("showOwner", 35) {
+			@Override
+			HttpRequest.Builder request(Options options, SplittableRandom random) {
+				return get(options, "/owners/" + options.ownerId(random));
+			}
+		},
+
+		/**
+		 * <code>GET /owners/{ownerId}/pets/new</code>.
+		 */
+		NEW_PET_FORM("newPetForm", 10) {
+			@Override
+			HttpRequest.Builder request(Options options, SplittableRandom random) {
+				return get(options, "/owners/" + options.ownerId(random) + "/pets/new");
+			}
+		},
+
+		/**
+		 * <code>POST /owners/{ownerId}/pets/{petId}/visits/new</code>.
+		 */
+		NEW_VISIT("newVisit", 5) {
+			@Override
+			HttpRequest.Builder request(Options options, SplittableRandom random) {
+				String form = "date=" + LocalDate.now() + "&description=checkup";
+				return HttpRequest
+						.newBuilder(options.uri("/owners/" + options.ownerId(random) + "/pets/" + options.petId(random)
+								+ "/visits/new"))
+						.header("Content-Type", "application/x-www-form-urlencoded")
+						.POST(HttpRequest.BodyPublishers.ofString(form));
+			}
+		},
+
+		/**
+		 * <code>GET /vets</code>.
+		 */
+		VETS("vets", 20) {
+			@Override
+			HttpRequest.Builder request(Options options, SplittableRandom random) {
+				return get(options, "/vets").header("Accept", "application/json");
+			}
+		};
+
+		private static final String[] LAST_NAMES = { "Davis", "Franklin", "Black", "Coleman", "Smith", "Johnson",
+				"Brown", "Garcia", "Mc", "Es", "Sch", "R" };
+
+		private final String id;
+
+		private final int defaultWeight;
+
+		Route(String id, int defaultWeight) {
+			this.id = id;
+			this.defaultWeight = defaultWeight;
+		}
+
+		public String getId() {
+			return this.id;
+		}
+
+		abstract HttpRequest.Builder request(Options options, SplittableRandom random);
+
+		private static HttpRequest.Builder get(Options options, String path) {
+			return HttpRequest.newBuilder(options.uri(path)).GET();
+		}
+
+	}
+
+	private final Options options;
+
+	public LoadDriver(Options options) {
+		this.options = options;
+	}
+
+	/**
+	 * Send the requests for the configured warmup and measured durations, wait for the
+	 * outstanding ones, and report the latencies of the requests sent after the warmup.
+	 */
+	public LoadReport run() throws InterruptedException {
+		Options options = this.options;
+		ExecutorService executor = Executors.newCachedThreadPool();
+		HttpClient client = HttpClient.newBuilder().executor(executor).followRedirects(HttpClient.Redirect.NEVER)
+				.connectTimeout(options.timeout).build();
+		LoadReport report = new LoadReport(options.duration);
+		SplittableRandom random = new SplittableRandom(options.seed);
+		Route[] routes = Route.values();
+		int[] cumulativeWeights = new int[routes.length];
+		int totalWeight = 0;
+		for (int i = 0; i < routes.length; i++) {
+			totalWeight += options.weights.getOrDefault(routes[i], routes[i].defaultWeight);
+			cumulativeWeights[i] = totalWeight;
+		}
+		if (totalWeight <= 0) {
+			throw new IllegalArgumentException("At least one route must have a positive weight");
+		}
+		AtomicInteger inFlight = new AtomicInteger();
+
+		long interval = TimeUnit.SECONDS.toNanos(1) / options.rate;
+		long start = System.nanoTime();
+		long measureFrom = start + options.warmup.toNanos();
+		long end = measureFrom + options.duration.toNanos();
+		for (long scheduled = start; scheduled < end; scheduled += interval) {
+			long delay = scheduled - System.nanoTime();
+			if (delay > 0) {
+				LockSupport.parkNanos(delay);
+			}
+			int pick = random.nextInt(totalWeight);
+			int index = 0;
+			while (cumulativeWeights[index] <= pick) {
+				index++;
+			}
+			Route route = routes[index];
+			HttpRequest request = route.request(options, random).timeout(options.timeout).build();
+			long intendedStart = scheduled;
+			boolean measured = scheduled >= measureFrom;
+			inFlight.incrementAndGet();
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, ex) -> {
+				if (measured) {
+					boolean success = ex == null && response.statusCode() < 400;
+					report.record(route, System.nanoTime() - intendedStart, success);
+				}
+				inFlight.decrementAndGet();
+			});
+		}
+
+		long deadline = System.nanoTime() + options.timeout.toNanos();
+		while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		executor.shutdownNow();
+		return report;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = Options.parse(args);
+		System.out.printf("Sending %d requests/s to %s for %s after a %s warmup%n", options.rate, options.baseUrl,
+				options.duration, options.warmup);
+		LoadReport report = new LoadDriver(options).run();
+		report.print(System.out);
+		if (options.histogramDirectory != null) {
+			report.writeHistograms(options.histogramDirectory);
+		}
+	}
+
+	/**
+	 * Settings of a run, parsed from <code>--name=value</code> arguments.
+	 */
+	public static class Options {
+
+		String baseUrl = "http://localhost:8080";
+
+		int rate = 100;
+
+		Duration warmup = Duration.ofSeconds(10);
+
+		Duration duration = Duration.ofSeconds(60);
+
+		Duration timeout = Duration.ofSeconds(10);
+
+		int owners = 10;
+
+		int pets = 13;
+
+		long seed = 42;
+
+		Map<Route, Integer> weights = new EnumMap<>(Route.class);
+
+		@Nullable
+		Path histogramDirectory;
+
+		/**
+		 * Parse the given arguments:
+		 * <ul>
+		 * <li><code>--url</code>: base URL of the application</li>
+		 * <li><code>--rate</code>: requests per second</li>
+		 * <li><code>--warmup</code>, <code>--duration</code>: unrecorded and recorded
+		 * durations, such as <code>30s</code></li>
+		 * <li><code>--timeout</code>: request timeout</li>
+		 * <li><code>--owners</code>, <code>--pets</code>: number of owners and pets in
+		 * the database, ids are picked at random below these</li>
+		 * <li><code>--mix</code>: route weights, such as
+		 * <code>showOwner=50,vets=50</code></li>
+		 * <li><code>--histograms</code>: directory to write the latency distributions
+		 * to</li>
+		 * </ul>
+		 */
+		public static Options parse(String... args) {
+			Options options = new Options();
+			for (String arg : args) {
+				int separator = arg.indexOf('=');
+				if (!arg.startsWith("--") || separator < 0) {
+					throw new IllegalArgumentException("Expected --name=value but got " + arg);
+				}
+				options.set(arg.substring(2, separator), arg.substring(separator + 1));
+			}
+			return options;
+		}
+
+		private void set(String name, String value) {
+			switch (name) {
+			case "url":
+				this.baseUrl = value;
+				break;
+			case "rate":
+				this.rate = Integer.parseInt(value);
+				break;
+			case "warmup":
+				this.warmup = DurationStyle.detectAndParse(value);
+				break;
+			case "duration":
+				this.duration = DurationStyle.detectAndParse(value);
+				break;
+			case "timeout":
+				this.timeout = DurationStyle.detectAndParse(value);
+				break;
+			case "owners":
+				this.owners = Integer.parseInt(value);
+				break;
+			case "pets":
+				this.pets = Integer.parseInt(value);
+				break;
+			case "seed":
+				this.seed = Long.parseLong(value);
+				break;
+			case "mix":
+				this.weights.clear();
+				for (Route route : Route.values()) {
+					this.weights.put(route, 0);
+				}
+				for (String weight : value.split(",")) {
+					String[] pair = weight.split("=");
+					this.weights.put(route(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+				}
+				break;
+			case "histograms":
+				this.histogramDirectory = Paths.get(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option --" + name);
+			}
+		}
+
+		private static Route route(String id) {
+			for (Route route : Route.values()) {
+				if (route.id.equals(id)) {
+					return route;
+				}
+			}
+			throw new IllegalArgumentException("Unknown route " + id);
+		}
+
+		URI uri(String path) {
+			return URI.create(this.baseUrl + path);
+		}
+
+		int ownerId(SplittableRandom random) {
+			return 1 + random.nextInt(this.owners);
+		}
+
+		int petId(SplittableRandom random) {
+			return 1 + random.nextInt(this.pets);
+		}
+
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.loadtest;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.samples.petclinic.loadtest.LoadDriver.Options;
+import org.springframework.samples.petclinic.loadtest.LoadDriver.Route;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link LoadDriver}, replaying a short run against the application. The
+ * concurrency limit is lifted, as the cold application would otherwise shed part of the
+ * run.
+ * <p>
+ * The replay depends on the machine keeping up with the request rate, so it is tagged
+ * <code>load</code> and only run with the <code>loadtest</code> Maven profile.
+ * </p>
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = { "spring.datasource.url=jdbc:hsqldb:mem:loadtest", "petclinic.concurrency-limit.enabled=false" })
+class LoadDriverTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	@Tag("load")
+	void shouldReplayEveryRouteWithoutErrors() throws Exception {
+		Options options = Options.parse("--url=http://localhost:" + this.port, "--rate=100", "--warmup=500ms",
+				"--duration=2s", "--mix=findOwners=1,showOwner=1,newPetForm=1,newVisit=1,vets=1");
+		LoadReport report = new LoadDriver(options).run();
+
+		for (Route route : Route.values()) {
+			assertThat(report.getLatencies(route).getTotalCount()).as(route.getId()).isPositive();
+		}
+		assertThat(report.getTotalErrors()).isZero();
+		assertThat(report.getTotalLatencies().getTotalCount()).isBetween(150L, 250L);
+	}
+
+	@Test
+	void shouldParseOptions() {
+		Options options = Options.parse("--rate=250", "--duration=1m", "--mix=vets=3,showOwner=1");
+		assertThat(options.rate).isEqualTo(250);
+		assertThat(options.duration).isEqualTo(Duration.ofMinutes(1));
+		assertThat(options.weights).containsEntry(Route.VETS, 3).containsEntry(Route.SHOW_OWNER, 1)
+				.containsEntry(Route.FIND_OWNERS, 0);
+	}
+
+}
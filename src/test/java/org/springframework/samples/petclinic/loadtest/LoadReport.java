@@ -0,0 +1,133 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import org.springframework.samples.petclinic.loadtest.LoadDriver.Route;
+
+/**
+ * Latencies and throughput of a {@link LoadDriver} run, per route and overall. Latencies
+ * of successful requests are kept in microseconds, failed requests are only counted.
+ */
+public class LoadReport {
+
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final Duration duration;
+
+	private final Map<Route, Histogram> latencies = new EnumMap<>(Route.class);
+
+	private final Map<Route, LongAdder> errors = new EnumMap<>(Route.class);
+
+	LoadReport(Duration duration) {
+		this.duration = duration;
+		for (Route route : Route.values()) {
+			this.latencies.put(route, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+			this.errors.put(route, new LongAdder());
+		}
+	}
+
+	void record(Route route, long nanos, boolean success) {
+		if (success) {
+			this.latencies.get(route).recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+		}
+		else {
+			this.errors.get(route).increment();
+		}
+	}
+
+	/**
+	 * Return the latencies of the successful requests to the given route, in
+	 * microseconds.
+	 */
+	public Histogram getLatencies(Route route) {
+		return this.latencies.get(route);
+	}
+
+	/**
+	 * Return the latencies of all the successful requests, in microseconds.
+	 */
+	public Histogram getTotalLatencies() {
+		Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+		this.latencies.values().forEach(total::add);
+		return total;
+	}
+
+	public long getErrors(Route route) {
+		return this.errors.get(route).sum();
+	}
+
+	public long getTotalErrors() {
+		return this.errors.values().stream().mapToLong(LongAdder::sum).sum();
+	}
+
+	/**
+	 * Print the request count, errors, throughput and latency percentiles of each route.
+	 */
+	public void print(PrintStream out) {
+		out.printf("%-12s %10s %8s %10s %10s %10s %10s %10s%n", "route", "requests", "errors", "req/s", "p50 ms",
+				"p99 ms", "p99.9 ms", "max ms");
+		for (Route route : Route.values()) {
+			print(out, route.getId(), this.latencies.get(route), getErrors(route));
+		}
+		print(out, "all", getTotalLatencies(), getTotalErrors());
+	}
+
+	private void print(PrintStream out, String name, Histogram latencies, long errors) {
+		long requests = latencies.getTotalCount() + errors;
+		double seconds = this.duration.toMillis() / 1000.0;
+		out.printf("%-12s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", name, requests, errors, requests / seconds,
+				millis(latencies, 50), millis(latencies, 99), millis(latencies, 99.9),
+				latencies.getMaxValue() / 1000.0);
+	}
+
+	private static double millis(Histogram latencies, double percentile) {
+		return latencies.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	/**
+	 * Write the latency distribution of each route, in milliseconds, to a
+	 * <code>.hgrm</code> file in the given directory, so that runs can be compared with
+	 * the HdrHistogram plotter.
+	 */
+	public void writeHistograms(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		for (Route route : Route.values()) {
+			write(directory.resolve(route.getId() + ".hgrm"), this.latencies.get(route));
+		}
+		write(directory.resolve("all.hgrm"), getTotalLatencies());
+	}
+
+	private static void write(Path file, Histogram latencies) throws IOException {
+		try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+			latencies.outputPercentileDistribution(out, 1000.0);
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link NamedEntityRegistry}
+ */
+class NamedEntityRegistryTests {
+
+	private final List<NamedEntity> table = new ArrayList<>();
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private NamedEntityRegistry<NamedEntity> registry;
+
+	@BeforeEach
+	void setup() {
+		this.table.add(namedEntity(1, "cat"));
+		this.table.add(namedEntity(2, "dog"));
+		this.registry = new NamedEntityRegistry<>(() -> {
+			this.loads.incrementAndGet();
+			return this.table;
+		});
+	}
+
+	@Test
+	void shouldLoadOnceAndLookUpByIdAndName() {
+		assertThat(this.registry.findAll()).extracting(NamedEntity::getName).containsExactly("cat", "dog");
+		assertThat(this.registry.findById(2)).map(NamedEntity::getName).hasValue("dog");
+		assertThat(this.registry.findByName("cat")).map(NamedEntity::getId).hasValue(1);
+		assertThat(this.registry.findByName("Cat")).isEmpty();
+		assertThat(this.registry.findById(3)).isEmpty();
+		assertThat(this.loads).hasValue(1);
+	}
+
+	@Test
+	void shouldReloadOnlyWhenRefreshedOrInvalidated() {
+		this.registry.refresh();
+		this.table.add(namedEntity(3, "lizard"));
+		assertThat(this.registry.findByName("lizard")).isEmpty();
+
+		this.registry.invalidate();
+		assertThat(this.registry.findByName("lizard")).isPresent();
+
+		this.table.remove(0);
+		this.registry.refresh();
+		assertThat(this.registry.findById(1)).isEmpty();
+		assertThat(this.loads).hasValue(3);
+	}
+
+	private static NamedEntity namedEntity(int id, String name) {
+		NamedEntity entity = new NamedEntity();
+		entity.setId(id);
+		entity.setName(name);
+		return entity;
+	}
+
+}
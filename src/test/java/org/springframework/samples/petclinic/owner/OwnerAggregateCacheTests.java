@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Integration test of {@link OwnerAggregateCache} with the application caches.
+ */
+@SpringBootTest
+class OwnerAggregateCacheTests {
+
+	@Autowired
+	private OwnerAggregateCache aggregates;
+
+	@Autowired
+	private OwnerVersions versions;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void shouldCacheAggregateUntilOwnerIsSaved() {
+		long version = this.versions.getVersion(6);
+		Owner owner = this.aggregates.findById(6, version).get();
+		assertThat(owner.getPets()).isNotEmpty().allSatisfy((pet) -> assertThat(pet.getVisits()).isNotNull());
+		assertThat(this.aggregates.findById(6, version)).containsSame(owner);
+		assertThat(this.cacheManager.getCache(OwnerAggregateCache.CACHE_NAME).get(6 + "-" + version)).isNotNull();
+
+		this.owners.save(this.owners.findById(6).get());
+		long newVersion = this.versions.getVersion(6);
+		assertThat(newVersion).isNotEqualTo(version);
+		assertThat(this.aggregates.findById(6, newVersion).get()).isNotSameAs(owner);
+	}
+
+	@Test
+	void shouldExposeCacheMetrics() {
+		assertThat(this.meterRegistry.find("cache.gets").tag("cache", OwnerAggregateCache.CACHE_NAME).meters())
+				.isNotEmpty();
+		assertThat(this.meterRegistry.find("cache.evictions").tag("cache", OwnerAggregateCache.CACHE_NAME).meters())
+				.isNotEmpty();
+	}
+
+}
@@ -18,11 +18,22 @@ package org.springframework.samples.petclinic.owner;
 
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasToString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -31,6 +42,8 @@ import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.assertj.core.util.Lists;
 import org.hamcrest.BaseMatcher;
@@ -40,9 +53,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.visit.Visit;
 import org.springframework.samples.petclinic.visit.VisitRepository;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 
 /**
  * Test class for {@link OwnerHandler}
@@ -51,6 +69,7 @@ import org.springframework.test.web.servlet.MockMvc;
  * @author Cèsar Ordiñana
  */
 @WebMvcTest(OwnerRouteConfiguration.class)
+@Import(OwnerAggregateCache.class)
 class OwnerEndpointsTests {
 
 	private static final int TEST_OWNER_ID = 1;
@@ -64,6 +83,15 @@ class OwnerEndpointsTests {
 	@MockBean
 	private VisitRepository visits;
 
+	@MockBean
+	private PetRepository pets;
+
+	@MockBean
+	private OwnerVersions versions;
+
+	@MockBean
+	private PlatformTransactionManager transactionManager;
+
 	private Owner george;
 
 	@BeforeEach
@@ -84,9 +112,13 @@ class OwnerEndpointsTests {
 		max.setBirthDate(LocalDate.now());
 		george.setPetsInternal(Collections.singleton(max));
 		given(this.owners.findById(TEST_OWNER_ID)).willReturn(Optional.of(george));
+		given(this.versions.getVersion(TEST_OWNER_ID)).willReturn(1L);
+		given(this.versions.eTag(anyLong())).willAnswer((invocation) -> "W/\"" + invocation.getArgument(0) + "\"");
 		Visit visit = new Visit();
 		visit.setDate(LocalDate.now());
-		given(this.visits.findByPetId(max.getId())).willReturn(Collections.singletonList(visit));
+		visit.setPetId(max.getId());
+		given(this.visits.findByPetIdIn(Collections.singleton(max.getId())))
+				.willReturn(Collections.singletonList(visit));
 	}
 
 	@Test
@@ -120,17 +152,52 @@ class OwnerEndpointsTests {
 
 	@Test
 	void testProcessFindFormSuccess() throws Exception {
-		given(this.owners.findByLastName("")).willReturn(Lists.newArrayList(george, new Owner()));
-		mockMvc.perform(get("/owners")).andExpect(status().isOk()).andExpect(view().name("owners/ownersList"));
+		Owner other = new Owner();
+		other.setId(2);
+		given(this.owners.findIdsByLastNameAfter(eq(""), eq(""), eq(0), any())).willReturn(List.of(1, 2));
+		given(this.owners.findByIdIn(anyCollection())).willReturn(Lists.newArrayList(george, other));
+		mockMvc.perform(get("/owners")).andExpect(status().isOk()).andExpect(view().name("owners/ownersList"))
+				.andExpect(model().attribute("previousCursor", nullValue()))
+				.andExpect(model().attribute("nextCursor", nullValue()));
 	}
 
 	@Test
 	void testProcessFindFormByLastName() throws Exception {
-		given(this.owners.findByLastName(george.getLastName())).willReturn(Lists.newArrayList(george));
+		given(this.owners.findIdsByLastNameAfter(eq(george.getLastName()), eq(""), eq(0), any()))
+				.willReturn(List.of(TEST_OWNER_ID));
 		mockMvc.perform(get("/owners").param("lastName", "Franklin")).andExpect(status().is3xxRedirection())
 				.andExpect(view().name("redirect:/owners/" + TEST_OWNER_ID));
 	}
 
+	@Test
+	void testProcessFindFormHasNextPage() throws Exception {
+		List<Integer> ids = IntStream.rangeClosed(1, OwnerHandler.PAGE_SIZE + 1).boxed().collect(Collectors.toList());
+		given(this.owners.findIdsByLastNameAfter(eq(""), eq(""), eq(0), any())).willReturn(ids);
+		given(this.owners.findByIdIn(anyCollection())).willReturn(Lists.newArrayList(george));
+		mockMvc.perform(get("/owners")).andExpect(status().isOk()).andExpect(view().name("owners/ownersList"))
+				.andExpect(model().attribute("previousCursor", nullValue()))
+				.andExpect(model().attribute("nextCursor", hasToString("1:Franklin")));
+	}
+
+	@Test
+	void testProcessFindFormAfterCursor() throws Exception {
+		given(this.owners.findIdsByLastNameAfter(eq("F"), eq("Davis"), eq(4), any())).willReturn(List.of(1));
+		given(this.owners.findByIdIn(anyCollection())).willReturn(Lists.newArrayList(george));
+		mockMvc.perform(get("/owners").param("lastName", "F").param("after", "4:Davis")).andExpect(status().isOk())
+				.andExpect(view().name("owners/ownersList"))
+				.andExpect(model().attribute("previousCursor", hasToString("1:Franklin")))
+				.andExpect(model().attribute("nextCursor", nullValue()));
+	}
+
+	@Test
+	void testProcessFindFormBeforeCursor() throws Exception {
+		given(this.owners.findIdsByLastNameBefore(eq(""), eq("McTavish"), eq(5), any())).willReturn(List.of(1));
+		given(this.owners.findByIdIn(anyCollection())).willReturn(Lists.newArrayList(george));
+		mockMvc.perform(get("/owners").param("before", "5:McTavish")).andExpect(status().isOk())
+				.andExpect(view().name("owners/ownersList")).andExpect(model().attribute("previousCursor", nullValue()))
+				.andExpect(model().attribute("nextCursor", hasToString("1:Franklin")));
+	}
+
 	@Test
 	void testProcessFindFormNoOwnersFound() throws Exception {
 		mockMvc.perform(get("/owners").param("lastName", "Unknown Surname")).andExpect(status().isOk())
@@ -139,6 +206,35 @@ class OwnerEndpointsTests {
 				.andExpect(view().name("owners/findOwners"));
 	}
 
+	@Test
+	void testFindLastNames() throws Exception {
+		given(this.owners.findLastNames("Da", PageRequest.of(0, OwnerHandler.DEFAULT_SUGGESTIONS)))
+				.willReturn(List.of("Davis", "Davison"));
+		mockMvc.perform(get("/owners/lastnames").param("prefix", "Da")).andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON)).andExpect(jsonPath("$[0]").value("Davis"))
+				.andExpect(jsonPath("$[1]").value("Davison"));
+	}
+
+	@Test
+	void testFindLastNamesLimitIsCapped() throws Exception {
+		given(this.owners.findLastNames("", PageRequest.of(0, OwnerHandler.MAX_SUGGESTIONS)))
+				.willReturn(List.of("Franklin"));
+		mockMvc.perform(get("/owners/lastnames").param("limit", "1000")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0]").value("Franklin"));
+	}
+
+	@Test
+	void testFindLastNamesLimitIsAtLeastOne() throws Exception {
+		given(this.owners.findLastNames("", PageRequest.of(0, 1))).willReturn(List.of("Franklin"));
+		mockMvc.perform(get("/owners/lastnames").param("limit", "-5")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0]").value("Franklin"));
+	}
+
+	@Test
+	void testFindLastNamesRejectsInvalidLimit() throws Exception {
+		mockMvc.perform(get("/owners/lastnames").param("limit", "abc")).andExpect(status().isBadRequest());
+	}
+
 	@Test
 	void testInitUpdateOwnerForm() throws Exception {
 		mockMvc.perform(get("/owners/{ownerId}/edit", TEST_OWNER_ID)).andExpect(status().isOk())
@@ -169,6 +265,26 @@ class OwnerEndpointsTests {
 				.andExpect(view().name("owners/createOrUpdateOwnerForm"));
 	}
 
+	@Test
+	void testShowOwnerNotModified() throws Exception {
+		String eTag = mockMvc.perform(get("/owners/{ownerId}", TEST_OWNER_ID)).andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		clearInvocations(this.owners, this.visits);
+		mockMvc.perform(get("/owners/{ownerId}", TEST_OWNER_ID).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.ETAG, eTag));
+		verifyNoInteractions(this.owners, this.visits);
+	}
+
+	@Test
+	void testShowOwnerModifiedAfterSave() throws Exception {
+		String eTag = mockMvc.perform(get("/owners/{ownerId}", TEST_OWNER_ID)).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		given(this.versions.getVersion(TEST_OWNER_ID)).willReturn(2L);
+		mockMvc.perform(get("/owners/{ownerId}", TEST_OWNER_ID).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+				.andExpect(view().name("owners/ownerDetails"));
+	}
+
 	@Test
 	void testShowOwner() throws Exception {
 		mockMvc.perform(get("/owners/{ownerId}", TEST_OWNER_ID)).andExpect(status().isOk())
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests of {@link OwnerExporter} and of the owner export route.
+ */
+@SpringBootTest
+class OwnerExporterTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setup() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	void shouldExportOwnersPetsAndVisitsAsCsv() throws Exception {
+		this.mockMvc.perform(get("/owners/export").param("format", "csv")).andExpect(status().isOk())
+				.andExpect(content().contentType("text/csv;charset=UTF-8"))
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"owners.csv\""))
+				.andExpect(content().string(startsWith(String.join(",", OwnerExporter.COLUMNS) + "\r\n")))
+				.andExpect(content().string(containsString("6,Jean,Coleman,105 N. Lake St.,Monona,6085552654,"
+						+ "7,Samantha,2012-09-04,cat,1,2013-01-01,rabies shot\r\n")));
+	}
+
+	@Test
+	void shouldExportOneJsonObjectPerLine() throws Exception {
+		String ndjson = this.mockMvc.perform(get("/owners/export")).andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-ndjson;charset=UTF-8")).andReturn().getResponse()
+				.getContentAsString();
+
+		assertThat(ndjson).endsWith("\n");
+		ObjectMapper mapper = new ObjectMapper();
+		JsonNode first = mapper.readTree(ndjson.substring(0, ndjson.indexOf('\n')));
+		assertThat(first.get("owner_id").asInt()).isEqualTo(1);
+		assertThat(first.get("last_name").asText()).isEqualTo("Franklin");
+		assertThat(first.get("pet_name").asText()).isEqualTo("Leo");
+		assertThat(first.get("pet_birth_date").asText()).isEqualTo("2010-09-07");
+		assertThat(first.has("visit_id")).isTrue();
+	}
+
+	@Test
+	void shouldRejectUnknownFormat() throws Exception {
+		this.mockMvc.perform(get("/owners/export").param("format", "xml")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void shouldStreamWithSmallFetchSize() throws Exception {
+		OwnerExporter exporter = new OwnerExporter(this.transactionManager, this.entityManagerFactory, 2);
+		StringWriter output = new StringWriter();
+
+		long rows = exporter.export(OwnerExporter.Format.CSV, output);
+
+		List<String> lines = List.of(output.toString().split("\r\n"));
+		assertThat(lines).hasSize((int) rows + 1);
+		assertThat(lines).filteredOn((line) -> line.startsWith("6,Jean,Coleman,")).hasSizeGreaterThanOrEqualTo(4);
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.samples.petclinic.model.NamedEntityRegistry;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.validation.Validator;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Integration tests of {@link OwnerImporter} and of the owner import route.
+ */
+@SpringBootTest
+class OwnerImporterTests {
+
+	private static final String HEADER = "first_name,last_name,address,city,telephone,pet_name,pet_birth_date,pet_type\n";
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private NamedEntityRegistry<PetType> petTypes;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setup() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	void shouldImportOwnersAndPetsFromRequestBody() throws Exception {
+		String csv = HEADER + "Jean,Importa,1 Main St.,Lyon,0123456789,Rex,2015-03-01,dog\n"
+				+ "Jean,Importa,1 Main St.,Lyon,0123456789,Tom,2016-04-02,cat\n"
+				+ "\"Ann, Jr.\",Importb,2 Main St.,Nice,0123456780,,,\n";
+		this.mockMvc.perform(post("/owners/import").contentType("text/csv").content(csv)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.rows").value(3)).andExpect(jsonPath("$.owners").value(2))
+				.andExpect(jsonPath("$.pets").value(2)).andExpect(jsonPath("$.rejectedRows").value(0));
+
+		Collection<Owner> imported = this.owners.findByLastName("Importa");
+		assertThat(imported).hasSize(1).first().satisfies((owner) -> {
+			assertThat(owner.getCity()).isEqualTo("Lyon");
+			assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("Rex", "Tom");
+			assertThat(owner.getPets()).extracting((pet) -> pet.getType().getName()).containsExactly("dog", "cat");
+		});
+		assertThat(this.owners.findByLastName("Importb")).hasSize(1).first()
+				.satisfies((owner) -> assertThat(owner.getFirstName()).isEqualTo("Ann, Jr."));
+	}
+
+	@Test
+	void shouldReportRejectedRowsWithoutStopping() throws Exception {
+		String csv = HEADER + "Paul,Rejecta,3 Main St.,Lyon,not a number,Rex,2015-03-01,dog\n"
+				+ "Paul,Rejectb,3 Main St.,Lyon,0123456789,Rex,2015-03-01,dragon\n"
+				+ "Paul,Rejectb,3 Main St.,Lyon,0123456789,Tom,,cat\n"
+				+ "Paul,Rejectb,3 Main St.,Lyon,0123456789,Kit,2015-03-01,cat\n"
+				+ "Paul,Rejectb,3 Main St.,Lyon,0123456789,kit,2015-03-01,cat\n" + ",Rejectc,,Lyon,0123456789,,,\n";
+		this.mockMvc.perform(post("/owners/import").contentType("text/csv").content(csv)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.rows").value(6)).andExpect(jsonPath("$.owners").value(1))
+				.andExpect(jsonPath("$.pets").value(1)).andExpect(jsonPath("$.rejectedRows").value(5))
+				.andExpect(jsonPath("$.rejections[0].line").value(2))
+				.andExpect(jsonPath("$.rejections[0].errors[0]").value(startsWith("telephone:")))
+				.andExpect(jsonPath("$.rejections[1].errors[0]").value("pet_type: invalid value 'dragon'"))
+				.andExpect(jsonPath("$.rejections[2].errors[0]").value("pet_birth_date: required"))
+				.andExpect(jsonPath("$.rejections[3].errors[0]").value("pet_name: already exists"))
+				.andExpect(jsonPath("$.rejections[4].line").value(7))
+				.andExpect(jsonPath("$.rejections[4].errors.length()").value(2));
+
+		assertThat(this.owners.findByLastName("Rejecta")).isEmpty();
+		assertThat(this.owners.findByLastName("Rejectb")).hasSize(1).first()
+				.satisfies((owner) -> assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("Kit"));
+	}
+
+	@Test
+	void shouldRejectFileWithoutOwnerColumns() throws Exception {
+		this.mockMvc.perform(post("/owners/import").contentType("text/csv").content("first_name,last_name\nA,B\n"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("The header lacks the [address, city, telephone] columns"));
+	}
+
+	@Test
+	void shouldWriteChunksAndRetryFailingChunkOneOwnerAtATime() {
+		OwnerImporter importer = new OwnerImporter(this.owners, this.petTypes, this.validator, this.transactionManager,
+				this.entityManagerFactory, 2, 10);
+		// the last name of the fourth owner does not fit in its column
+		String csv = HEADER
+				+ IntStream.range(0, 5)
+						.mapToObj((i) -> String.format("Owner%d,%s,%d Main St.,Lyon,012345678%d,Pet%d,2015-03-01,cat\n",
+								i, (i == 3 ? "Chunked" + "x".repeat(40) : "Chunked"), i, i, i))
+						.collect(Collectors.joining());
+
+		OwnerImportReport report = importer.importOwners(new StringReader(csv));
+
+		assertThat(report.getRows()).isEqualTo(5);
+		assertThat(report.getOwners()).isEqualTo(4);
+		assertThat(report.getPets()).isEqualTo(4);
+		assertThat(report.getRejections()).hasSize(1).first().satisfies((rejection) -> {
+			assertThat(rejection.getLine()).isEqualTo(5);
+			assertThat(rejection.getErrors()).isNotEmpty();
+		});
+		assertThat(this.owners.findByLastName("Chunked")).extracting(Owner::getFirstName)
+				.containsExactlyInAnyOrder("Owner0", "Owner1", "Owner2", "Owner4");
+	}
+
+	@Test
+	void shouldReportUnreadableRestOfFile() {
+		OwnerImporter importer = new OwnerImporter(this.owners, this.petTypes, this.validator, this.transactionManager,
+				this.entityManagerFactory, 2, 10);
+		String csv = HEADER + "Eve,Truncated,4 Main St.,Lyon,0123456789,,,\n\"Eve,Truncated";
+
+		OwnerImportReport report = importer.importOwners(new StringReader(csv));
+
+		assertThat(report.getOwners()).isEqualTo(1);
+		assertThat(report.getError()).contains("line 3");
+		assertThat(this.owners.findByLastName("Truncated")).hasSize(1);
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.samples.petclinic.model.EntitySavedEvent;
+
+/**
+ * Test class for {@link OwnerLastNameIndex}
+ */
+@ExtendWith(MockitoExtension.class)
+class OwnerLastNameIndexTests {
+
+	@Mock
+	private OwnerRepository owners;
+
+	private OwnerLastNameIndex index;
+
+	private long now;
+
+	@BeforeEach
+	void setup() {
+		given(this.owners.findAllLastNames()).willReturn(List.of(new Object[] { 1, "Franklin" },
+				new Object[] { 2, "Davis" }, new Object[] { 3, "Rodriquez" }, new Object[] { 4, "Davis" },
+				new Object[] { 5, "McTavish" }, new Object[] { 6, "Coleman" }, new Object[] { 7, "davison" }));
+		this.index = new OwnerLastNameIndex(this.owners, Duration.ofMinutes(1), () -> this.now);
+	}
+
+	@Test
+	void shouldNotBeReadyUntilRebuilt() {
+		assertThat(this.index.isReady()).isFalse();
+		this.index.rebuild();
+		assertThat(this.index.isReady()).isTrue();
+	}
+
+	@Test
+	void shouldFindIdsByPrefixIgnoringCase() {
+		this.index.rebuild();
+		assertThat(this.index.findIdsAfter("dav", "", 0, 10)).containsExactly(2, 4, 7);
+		assertThat(this.index.findIdsAfter("Davis", "", 0, 10)).containsExactly(2, 4, 7);
+		assertThat(this.index.findIdsAfter("Daviss", "", 0, 10)).isEmpty();
+		assertThat(this.index.findIdsAfter("", "", 0, 10)).containsExactly(6, 2, 4, 7, 1, 5, 3);
+	}
+
+	@Test
+	void shouldSeekAfterAndBeforeKeysetPosition() {
+		this.index.rebuild();
+		assertThat(this.index.findIdsAfter("", "", 0, 2)).containsExactly(6, 2);
+		assertThat(this.index.findIdsAfter("", "Davis", 2, 2)).containsExactly(4, 7);
+		assertThat(this.index.findIdsBefore("", "Davis", 4, 2)).containsExactly(2, 6);
+		assertThat(this.index.findIdsBefore("d", "McTavish", 5, 10)).containsExactly(7, 4, 2);
+	}
+
+	@Test
+	void shouldFindDistinctLastNamesByPrefix() {
+		this.index.rebuild();
+		assertThat(this.index.findLastNames("da", 10)).containsExactly("Davis", "davison");
+		assertThat(this.index.findLastNames("", 3)).containsExactly("Coleman", "Davis", "davison");
+		assertThat(this.index.findLastNames("x", 10)).isEmpty();
+	}
+
+	@Test
+	void shouldApplySavedOwners() {
+		this.index.rebuild();
+		Owner renamed = new Owner();
+		renamed.setId(1);
+		renamed.setLastName("Dawson");
+		this.index.ownerSaved(new EntitySavedEvent<>(renamed));
+		Owner added = new Owner();
+		added.setId(11);
+		added.setLastName("Davies");
+		this.index.ownerSaved(new EntitySavedEvent<>(added));
+
+		assertThat(this.index.findIdsAfter("Da", "", 0, 10)).containsExactly(11, 2, 4, 7, 1);
+		assertThat(this.index.findIdsAfter("Franklin", "", 0, 10)).isEmpty();
+		assertThat(this.index.findLastNames("Da", 10)).containsExactly("Davies", "Davis", "davison", "Dawson");
+	}
+
+	@Test
+	void shouldReloadOnceRefreshIntervalHasElapsed() {
+		this.index.rebuild();
+		given(this.owners.findAllLastNames())
+				.willReturn(List.of(new Object[] { 1, "Franklin" }, new Object[] { 12, "Dalton" }));
+
+		this.now += Duration.ofSeconds(59).toNanos();
+		assertThat(this.index.findLastNames("Da", 10)).containsExactly("Davis", "davison");
+		this.now += Duration.ofSeconds(1).toNanos();
+		assertThat(this.index.findLastNames("Da", 10)).containsExactly("Dalton");
+		assertThat(this.index.findIdsAfter("", "", 0, 10)).containsExactly(12, 1);
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.samples.petclinic.visit.Visit;
+import org.springframework.samples.petclinic.visit.VisitRepository;
+
+/**
+ * Test class for {@link OwnerVersions}
+ */
+@DataJpaTest
+@Import(OwnerVersions.class)
+class OwnerVersionsTests {
+
+	@Autowired
+	private OwnerVersions versions;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private PetRepository pets;
+
+	@Autowired
+	private VisitRepository visits;
+
+	@Test
+	void shouldChangeVersionOnlyForTheSavedOwner() {
+		long version = this.versions.getVersion(1);
+		long otherVersion = this.versions.getVersion(2);
+		assertThat(this.versions.eTag(version)).startsWith("W/\"").isNotEqualTo(this.versions.eTag(version + 1));
+
+		this.owners.save(this.owners.findById(1).get());
+		assertThat(this.versions.getVersion(1)).isNotEqualTo(version);
+		assertThat(this.versions.getVersion(2)).isEqualTo(otherVersion);
+	}
+
+	@Test
+	void shouldChangeVersionWhenPetIsSaved() {
+		long version = this.versions.getVersion(1);
+		this.pets.save(this.pets.findById(1).get());
+		assertThat(this.versions.getVersion(1)).isNotEqualTo(version);
+	}
+
+	@Test
+	void shouldChangeVersionOfThePetOwnerWhenVisitIsSaved() {
+		long version = this.versions.getVersion(1);
+		Visit visit = new Visit();
+		visit.setPetId(1);
+		visit.setDate(LocalDate.now());
+		visit.setDescription("checkup");
+		this.visits.save(visit);
+		assertThat(this.versions.getVersion(1)).isNotEqualTo(version);
+	}
+
+	@Test
+	void shouldReturnZeroForUnknownOwner() {
+		assertThat(this.versions.getVersion(-1)).isZero();
+	}
+
+}
@@ -33,6 +33,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.samples.petclinic.model.NamedEntityRegistry;
 import org.springframework.test.web.servlet.MockMvc;
 
 /**
@@ -58,12 +59,16 @@ class PetEndpointsTests {
 	@MockBean
 	private OwnerRepository owners;
 
+	@Autowired
+	private NamedEntityRegistry<PetType> petTypes;
+
 	@BeforeEach
 	void setup() {
 		PetType cat = new PetType();
 		cat.setId(3);
 		cat.setName("hamster");
 		given(this.pets.findPetTypes()).willReturn(Lists.newArrayList(cat));
+		this.petTypes.refresh();
 		Owner owner = new Owner();
 		owner.setId(TEST_OWNER_ID);
 		given(this.owners.findById(TEST_OWNER_ID)).willReturn(Optional.of(owner));
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.visit.Visit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link Pet}
+ */
+class PetTests {
+
+	@Test
+	void testVisitsSortedMostRecentFirstWithUndatedVisitsLast() {
+		Pet pet = new Pet();
+		pet.setVisitsInternal(List.of(visit(1, LocalDate.of(2013, 1, 1)), visit(2, null),
+				visit(3, LocalDate.of(2013, 1, 4)), visit(4, LocalDate.of(2013, 1, 1)), visit(5, null)));
+		assertThat(pet.getVisits()).extracting(Visit::getId).containsExactly(3, 4, 1, 5, 2);
+	}
+
+	private static Visit visit(int id, LocalDate date) {
+		Visit visit = new Visit();
+		visit.setId(id);
+		visit.setDate(date);
+		return visit;
+	}
+
+}
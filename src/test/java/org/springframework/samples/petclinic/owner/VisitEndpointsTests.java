@@ -16,14 +16,25 @@
 
 package org.springframework.samples.petclinic.owner;
 
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.hasToString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +44,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.samples.petclinic.owner.Pet;
 import org.springframework.samples.petclinic.owner.PetRepository;
 import org.springframework.samples.petclinic.owner.VisitHandler;
+import org.springframework.samples.petclinic.visit.Visit;
 import org.springframework.samples.petclinic.visit.VisitRepository;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -58,7 +70,13 @@ class VisitEndpointsTests {
 
 	@BeforeEach
 	void init() {
-		given(this.pets.findById(TEST_PET_ID)).willReturn(Optional.of(new Pet()));
+		Owner owner = new Owner();
+		owner.setId(1);
+		Pet pet = new Pet();
+		pet.setId(TEST_PET_ID);
+		pet.setOwner(owner);
+		given(this.pets.findById(TEST_PET_ID)).willReturn(Optional.of(pet));
+		given(this.pets.existsById(TEST_PET_ID)).willReturn(true);
 	}
 
 	@Test
@@ -67,11 +85,71 @@ class VisitEndpointsTests {
 				.andExpect(view().name("pets/createOrUpdateVisitForm"));
 	}
 
+	@Test
+	void testInitNewVisitFormShowsMostRecentVisits() throws Exception {
+		List<Visit> visits = IntStream.rangeClosed(1, VisitHandler.VISITS_PAGE_SIZE + 1).mapToObj((i) -> {
+			Visit visit = new Visit();
+			visit.setId(100 - i);
+			visit.setDate(LocalDate.of(2019, 1, 31).minusDays(i));
+			visit.setDescription("checkup");
+			return visit;
+		}).collect(Collectors.toList());
+		given(this.visits.findMostRecentByPetId(eq(TEST_PET_ID), any())).willReturn(visits);
+
+		mockMvc.perform(get("/owners/*/pets/{petId}/visits/new", TEST_PET_ID)).andExpect(status().isOk())
+				.andExpect(model().attribute("visits", hasSize(VisitHandler.VISITS_PAGE_SIZE)))
+				.andExpect(model().attribute("olderCursor", hasToString("90:2019-01-21")));
+	}
+
+	@Test
+	void testInitNewVisitFormShowsOlderVisits() throws Exception {
+		given(this.visits.findByPetIdBefore(eq(TEST_PET_ID), eq(LocalDate.of(2019, 1, 20)), eq(90), any()))
+				.willReturn(List.of(visit(89, LocalDate.of(2019, 1, 19)), visit(88, null)));
+
+		mockMvc.perform(get("/owners/*/pets/{petId}/visits/new", TEST_PET_ID).param("before", "90:2019-01-20"))
+				.andExpect(status().isOk()).andExpect(model().attribute("newerCursor", hasToString("89:2019-01-19")))
+				.andExpect(model().attributeDoesNotExist("olderCursor"));
+	}
+
+	@Test
+	void testInitNewVisitFormShowsNewerVisits() throws Exception {
+		List<Visit> visits = IntStream.rangeClosed(1, VisitHandler.VISITS_PAGE_SIZE + 1)
+				.mapToObj((i) -> visit(i, LocalDate.of(2019, 1, 1).plusDays(i))).collect(Collectors.toList());
+		given(this.visits.findByPetIdAfterUndated(eq(TEST_PET_ID), eq(7), any())).willReturn(visits);
+
+		mockMvc.perform(get("/owners/*/pets/{petId}/visits/new", TEST_PET_ID).param("after", "7:"))
+				.andExpect(status().isOk())
+				.andExpect(model().attribute("visits", hasSize(VisitHandler.VISITS_PAGE_SIZE)))
+				.andExpect(model().attribute("newerCursor", hasToString("10:2019-01-11")))
+				.andExpect(model().attribute("olderCursor", hasToString("1:2019-01-02")));
+	}
+
 	@Test
 	void testProcessNewVisitFormSuccess() throws Exception {
 		mockMvc.perform(post("/owners/1/pets/{petId}/visits/new", TEST_PET_ID).param("name", "George")
 				.param("description", "Visit Description")).andExpect(status().is3xxRedirection())
 				.andExpect(view().name("redirect:/owners/1"));
+		then(this.visits).should().save(argThat((visit) -> visit.getPetId() == TEST_PET_ID));
+		then(this.pets).should(never()).findById(any());
+		then(this.visits).should(never()).findMostRecentByPetId(any(), any());
+	}
+
+	@Test
+	void testProcessNewVisitFormUnknownPet() throws Exception {
+		mockMvc.perform(post("/owners/1/pets/{petId}/visits/new", 2).param("description", "Visit Description"))
+				.andExpect(status().isNotFound());
+		then(this.visits).should(never()).save(any());
+	}
+
+	@Test
+	void testProcessNewVisitFormHasErrorsUnknownPet() throws Exception {
+		mockMvc.perform(post("/owners/1/pets/{petId}/visits/new", 2).param("name", "George"))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void testInitNewVisitFormUnknownPet() throws Exception {
+		mockMvc.perform(get("/owners/*/pets/{petId}/visits/new", 2)).andExpect(status().isNotFound());
 	}
 
 	@Test
@@ -81,4 +159,12 @@ class VisitEndpointsTests {
 				.andExpect(view().name("pets/createOrUpdateVisitForm"));
 	}
 
+	private static Visit visit(int id, LocalDate date) {
+		Visit visit = new Visit();
+		visit.setId(id);
+		visit.setDate(date);
+		visit.setDescription("checkup");
+		return visit;
+	}
+
 }
@@ -19,12 +19,19 @@ package org.springframework.samples.petclinic.service;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.samples.petclinic.owner.Owner;
 import org.springframework.samples.petclinic.owner.OwnerRepository;
 import org.springframework.samples.petclinic.owner.Pet;
@@ -67,7 +74,8 @@ import org.springframework.transaction.annotation.Transactional;
  * @author Dave Syer
  */
 
-@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class))
+@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class),
+		properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class ClinicServiceTests {
 
 	@Autowired
@@ -82,6 +90,9 @@ class ClinicServiceTests {
 	@Autowired
 	protected VetRepository vets;
 
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
 	@Test
 	void shouldFindOwnersByLastName() {
 		Collection<Owner> owners = this.owners.findByLastName("Davis");
@@ -91,6 +102,35 @@ class ClinicServiceTests {
 		assertThat(owners).isEmpty();
 	}
 
+	@Test
+	void shouldFindOwnerIdsByLastNameKeyset() {
+		List<Integer> ids = this.owners.findIdsByLastNameAfter("", "", 0, PageRequest.of(0, 3));
+		assertThat(ids).containsExactly(7, 6, 2);
+
+		ids = this.owners.findIdsByLastNameAfter("", "Davis", 4, PageRequest.of(0, 2));
+		assertThat(ids).containsExactly(8, 10);
+
+		ids = this.owners.findIdsByLastNameBefore("", "Davis", 4, PageRequest.of(0, 2));
+		assertThat(ids).containsExactly(2, 6);
+
+		ids = this.owners.findIdsByLastNameAfter("Davis", "Davis", 2, PageRequest.of(0, 2));
+		assertThat(ids).containsExactly(4);
+	}
+
+	@Test
+	void shouldFindOwnersWithPetsByIds() {
+		Collection<Owner> owners = this.owners.findByIdIn(List.of(3, 6));
+		assertThat(owners).extracting(Owner::getLastName).containsExactlyInAnyOrder("Rodriquez", "Coleman");
+		assertThat(owners).allSatisfy(owner -> assertThat(owner.getPets()).isNotEmpty());
+	}
+
+	@Test
+	void shouldFindDistinctLastNamesByPrefix() {
+		assertThat(this.owners.findLastNames("Da", PageRequest.of(0, 10))).containsExactly("Davis");
+		assertThat(this.owners.findLastNames("E", PageRequest.of(0, 10))).containsExactly("Escobito", "Estaban");
+		assertThat(this.owners.findLastNames("", PageRequest.of(0, 2))).containsExactly("Black", "Coleman");
+	}
+
 	@Test
 	void shouldFindSingleOwnerWithPet() {
 		Owner owner = this.owners.findById(1).get();
@@ -142,6 +182,12 @@ class ClinicServiceTests {
 
 	}
 
+	@Test
+	void shouldCheckPetExistsById() {
+		assertThat(this.pets.existsById(7)).isTrue();
+		assertThat(this.pets.existsById(-1)).isFalse();
+	}
+
 	@Test
 	void shouldFindAllPetTypes() {
 		Collection<PetType> petTypes = this.pets.findPetTypes();
@@ -175,6 +221,32 @@ class ClinicServiceTests {
 		assertThat(pet.getId()).isNotNull();
 	}
 
+	@Test
+	@Transactional
+	void shouldInsertPetsInBatches() {
+		Owner owner10 = this.owners.findById(10).get();
+		PetType cat = EntityUtils.getById(this.pets.findPetTypes(), PetType.class, 1);
+		List<Pet> pets = new ArrayList<>();
+		for (int i = 0; i < 60; i++) {
+			Pet pet = new Pet();
+			pet.setName("kitten" + i);
+			pet.setType(cat);
+			pet.setBirthDate(LocalDate.now());
+			owner10.addPet(pet);
+			pets.add(pet);
+		}
+		Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		this.pets.saveAll(pets);
+		this.owners.findByLastName("Estaban");
+
+		assertThat(pets).extracting(Pet::getId).doesNotContainNull().doesNotHaveDuplicates();
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(60);
+		// two batches of inserts, plus the allocation of two blocks of ids and the query
+		assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+	}
+
 	@Test
 	@Transactional
 	void shouldUpdatePetName() throws Exception {
@@ -200,6 +272,17 @@ class ClinicServiceTests {
 		assertThat(vet.getSpecialties().get(1).getName()).isEqualTo("surgery");
 	}
 
+	@Test
+	void shouldFindVetsWithSpecialtiesInSingleStatement() {
+		Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		Collection<Vet> vets = this.vets.findAll();
+		assertThat(vets).hasSize(6);
+		assertThat(vets).extracting(Vet::getNrOfSpecialties).containsOnly(0, 1, 2);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
 	@Test
 	@Transactional
 	void shouldAddNewVisitForPet() {
@@ -216,6 +299,27 @@ class ClinicServiceTests {
 		assertThat(visit.getId()).isNotNull();
 	}
 
+	@Test
+	@Transactional
+	void shouldInsertVisitsInBatches() {
+		List<Visit> visits = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			Visit visit = new Visit();
+			visit.setPetId((i % 2 == 0) ? 1 : 2);
+			visit.setDescription("checkup " + i);
+			visits.add(visit);
+		}
+		Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		this.visits.saveAll(visits);
+
+		assertThat(this.visits.findByPetIdIn(List.of(1, 2))).hasSize(120);
+		assertThat(visits.get(119).getId()).isGreaterThan(visits.get(0).getId());
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+		assertThat(statistics.getPrepareStatementCount()).isLessThan(15);
+	}
+
 	@Test
 	void shouldFindVisitsByPetId() throws Exception {
 		Collection<Visit> visits = this.visits.findByPetId(7);
@@ -225,4 +329,38 @@ class ClinicServiceTests {
 		assertThat(visitArr[0].getPetId()).isEqualTo(7);
 	}
 
+	@Test
+	@Transactional
+	void shouldFindVisitsByPetIdMostRecentFirst() {
+		Visit sameDay = new Visit();
+		sameDay.setPetId(7);
+		sameDay.setDate(LocalDate.of(2013, 1, 4));
+		sameDay.setDescription("follow-up");
+		Visit undated = new Visit();
+		undated.setPetId(7);
+		undated.setDate(null);
+		undated.setDescription("undated");
+		this.visits.saveAll(List.of(sameDay, undated));
+
+		List<Visit> mostRecent = this.visits.findMostRecentByPetId(7, PageRequest.of(0, 2));
+		assertThat(mostRecent).extracting(Visit::getId).containsExactly(sameDay.getId(), 4);
+
+		Visit last = mostRecent.get(1);
+		List<Visit> older = this.visits.findByPetIdBefore(7, last.getDate(), last.getId(), PageRequest.of(0, 2));
+		assertThat(older).extracting(Visit::getId).containsExactly(1, undated.getId());
+		assertThat(this.visits.findUndatedByPetIdBefore(7, undated.getId(), PageRequest.of(0, 2))).isEmpty();
+
+		List<Visit> newer = this.visits.findByPetIdAfterUndated(7, undated.getId(), PageRequest.of(0, 2));
+		assertThat(newer).extracting(Visit::getId).containsExactly(1, 4);
+		assertThat(this.visits.findByPetIdAfter(7, LocalDate.of(2013, 1, 1), 1, PageRequest.of(0, 2)))
+				.extracting(Visit::getId).containsExactly(4, sameDay.getId());
+	}
+
+	@Test
+	void shouldFindVisitsByPetIds() throws Exception {
+		Collection<Visit> visits = this.visits.findByPetIdIn(List.of(7, 8, 1));
+		assertThat(visits).hasSize(4);
+		assertThat(visits).extracting(Visit::getPetId).containsOnly(7, 8);
+	}
+
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CsvReader}.
+ */
+class CsvReaderTests {
+
+	@Test
+	void shouldReadPlainAndQuotedFields() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader("a,b,,c\n\"d,e\",\"say \"\"hi\"\"\",f\n"));
+		assertThat(csv.readRecord()).containsExactly("a", "b", "", "c");
+		assertThat(csv.getLineNumber()).isEqualTo(1);
+		assertThat(csv.readRecord()).containsExactly("d,e", "say \"hi\"", "f");
+		assertThat(csv.getLineNumber()).isEqualTo(2);
+		assertThat(csv.readRecord()).isNull();
+	}
+
+	@Test
+	void shouldCountLinesOfMultilineFields() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader("\uFEFFa,\"b\r\nc\"\r\nd\re"));
+		assertThat(csv.readRecord()).containsExactly("a", "b\r\nc");
+		assertThat(csv.getLineNumber()).isEqualTo(1);
+		assertThat(csv.readRecord()).containsExactly("d");
+		assertThat(csv.getLineNumber()).isEqualTo(3);
+		assertThat(csv.readRecord()).containsExactly("e");
+		assertThat(csv.getLineNumber()).isEqualTo(4);
+		assertThat(csv.readRecord()).isNull();
+	}
+
+	@Test
+	void shouldRejectUnterminatedQuote() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader("a\n\"b,c\nd\n"));
+		assertThat(csv.readRecord()).containsExactly("a");
+		assertThatIOException().isThrownBy(csv::readRecord).withMessageContaining("line 2");
+	}
+
+	@Test
+	void shouldRejectOverlongRecord() {
+		CsvReader csv = new CsvReader(new StringReader("\"" + "x".repeat(CsvReader.MAX_RECORD_LENGTH)));
+		assertThatIOException().isThrownBy(csv::readRecord).withMessageContaining("longer than");
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CsvWriter}.
+ */
+class CsvWriterTests {
+
+	@Test
+	void shouldQuoteFieldsOnlyWhenNeeded() throws IOException {
+		StringWriter output = new StringWriter();
+		CsvWriter csv = new CsvWriter(output);
+		csv.writeRecord("a", 1, null, LocalDate.of(2013, 1, 1));
+		csv.writeRecord("b,c", "say \"hi\"", "d\ne");
+		assertThat(output.toString()).isEqualTo("a,1,,2013-01-01\r\n\"b,c\",\"say \"\"hi\"\"\",\"d\ne\"\r\n");
+	}
+
+	@Test
+	void shouldWriteRecordsReadBackByCsvReader() throws IOException {
+		StringWriter output = new StringWriter();
+		CsvWriter csv = new CsvWriter(output);
+		csv.writeRecord("\"quoted\"", "multi\r\nline", "");
+		CsvReader reader = new CsvReader(new StringReader(output.toString()));
+		assertThat(reader.readRecord()).containsExactly("\"quoted\"", "multi\r\nline", "");
+		assertThat(reader.readRecord()).isNull();
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link ConcurrencyLimiter}
+ */
+@SpringBootTest
+class ConcurrencyLimiterTests {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+
+	private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+	@Autowired
+	private WebApplicationContext context;
+
+	private long now;
+
+	@Autowired
+	private ConcurrencyLimiter concurrencyLimiter;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Test
+	void shouldRejectRequestsOverTheLimit() {
+		ConcurrencyLimiter limiter = limiter(2);
+		assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isFalse();
+
+		limiter.release(FAST, false);
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+		assertThat(limiter.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void shouldBackOffOncePerLatencyThresholdWhenRequestsAreSlow() {
+		ConcurrencyLimiter limiter = limiter(20);
+		for (int i = 0; i < 10; i++) {
+			limiter.tryAcquire();
+			limiter.release(SLOW, false);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(18);
+
+		for (int i = 0; i < 10; i++) {
+			this.now += SLOW;
+			limiter.tryAcquire();
+			limiter.release(SLOW, false);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(6);
+		for (int i = 0; i < 50; i++) {
+			this.now += SLOW;
+			limiter.tryAcquire();
+			limiter.release(FAST, true);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldGrowWhenTheLimitIsUsedAndRequestsAreFast() {
+		ConcurrencyLimiter limiter = limiter(4);
+		for (int round = 0; round < 40; round++) {
+			int acquired = 0;
+			while (limiter.tryAcquire()) {
+				acquired++;
+			}
+			for (int i = 0; i < acquired; i++) {
+				limiter.release(FAST, false);
+			}
+		}
+		assertThat(limiter.getLimit()).isGreaterThan(4);
+
+		ConcurrencyLimiter idle = limiter(4);
+		for (int i = 0; i < 100; i++) {
+			idle.tryAcquire();
+			idle.release(FAST, false);
+		}
+		assertThat(idle.getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	void shouldNotAdjustTheLimitOnBulkRequests() throws Exception {
+		ConcurrencyLimiter limiter = limiter(20);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/owners/export");
+		ServerRequest serverRequest = ServerRequest.create(request, Collections.emptyList());
+		limiter.bulk().filter(serverRequest, (req) -> ServerResponse.ok().build());
+		assertThat(limiter.getInFlight()).isOne();
+
+		this.now += SLOW;
+		limiter.afterCompletion(request, new MockHttpServletResponse(), null, null);
+		assertThat(limiter.getInFlight()).isZero();
+		assertThat(limiter.getLimit()).isEqualTo(20);
+	}
+
+	@Test
+	void shouldShedDatabaseRoutesButNotCachedOnes() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+		int acquired = 0;
+		try {
+			while (this.concurrencyLimiter.tryAcquire()) {
+				acquired++;
+			}
+			mockMvc.perform(get("/owners/{ownerId}", 1)).andExpect(status().isServiceUnavailable())
+					.andExpect(header().string("Retry-After", "1"));
+			mockMvc.perform(get("/owners/export")).andExpect(status().isServiceUnavailable());
+			mockMvc.perform(get("/vets.html")).andExpect(status().isOk());
+		}
+		finally {
+			for (int i = 0; i < acquired; i++) {
+				this.concurrencyLimiter.release(FAST, false);
+			}
+		}
+		mockMvc.perform(get("/owners/{ownerId}", 1)).andExpect(status().isOk());
+		mockMvc.perform(get("/owners/export")).andExpect(status().isOk());
+
+		assertThat(this.registry.get("petclinic.concurrency.rejected").counter().count()).isPositive();
+		assertThat(this.registry.get("petclinic.concurrency.in.flight").gauge().value()).isZero();
+	}
+
+	private ConcurrencyLimiter limiter(int initialLimit) {
+		ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+		properties.setInitialLimit(initialLimit);
+		properties.setMinLimit(2);
+		properties.setBackoffRatio(0.9);
+		properties.setLatencyThreshold(Duration.ofMillis(500));
+		return new ConcurrencyLimiter(properties, new SimpleMeterRegistry(), () -> this.now);
+	}
+
+}
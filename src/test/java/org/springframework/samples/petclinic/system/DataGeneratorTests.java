@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link DataGenerator}
+ */
+class DataGeneratorTests {
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setup() {
+		this.database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.HSQL).generateUniqueName(true)
+				.addScripts("db/hsqldb/schema.sql", "db/hsqldb/data.sql").build();
+		this.jdbcTemplate = new JdbcTemplate(this.database);
+	}
+
+	@AfterEach
+	void shutdown() {
+		this.database.shutdown();
+	}
+
+	@Test
+	void shouldAddConfiguredVolumes() {
+		int owners = count("owners");
+		int pets = count("pets");
+		int visits = count("visits");
+
+		generate(500, 1500, 5000);
+
+		assertThat(count("owners")).isEqualTo(owners + 500);
+		assertThat(count("pets")).isEqualTo(pets + 1500);
+		assertThat(count("visits")).isEqualTo(visits + 5000);
+	}
+
+	@Test
+	void shouldLeaveIdentityColumnsAfterGeneratedIds() {
+		generate(50, 0, 0);
+		Integer maxId = this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM owners", Integer.class);
+		this.jdbcTemplate.update("INSERT INTO owners (first_name, last_name) VALUES ('George', 'Franklin')");
+		assertThat(this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM owners", Integer.class)).isGreaterThan(maxId);
+	}
+
+	@Test
+	void shouldSkewLastNames() {
+		generate(2000, 0, 0);
+		Integer mostCommon = this.jdbcTemplate.queryForObject(
+				"SELECT MAX(c) FROM (SELECT COUNT(*) AS c FROM owners GROUP BY last_name) AS counts", Integer.class);
+		Integer distinct = this.jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT last_name) FROM owners",
+				Integer.class);
+		assertThat(mostCommon).isGreaterThan(2000 / 10);
+		assertThat(distinct).isGreaterThan(100);
+	}
+
+	@Test
+	void shouldDateVisitsBetweenBirthAndToday() {
+		generate(100, 300, 3000);
+		Integer misplaced = this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM visits v JOIN pets p "
+						+ "ON v.pet_id = p.id WHERE v.visit_date < p.birth_date OR v.visit_date > ?",
+				Integer.class, LocalDate.now());
+		assertThat(misplaced).isZero();
+	}
+
+	private void generate(int owners, int pets, int visits) {
+		DataGeneratorProperties properties = new DataGeneratorProperties();
+		properties.setOwners(owners);
+		properties.setPets(pets);
+		properties.setVisits(visits);
+		properties.setBatchSize(128);
+		new DataGenerator(this.jdbcTemplate, new DataSourceTransactionManager(this.database), properties).generate();
+	}
+
+	private int count(String table) {
+		return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Test class for {@link PetClinicCacheProperties}
+ */
+class PetClinicCachePropertiesTests {
+
+	@Test
+	void shouldTakeUnsetCacheSettingsFromDefaults() {
+		PetClinicCacheProperties properties = bind(Map.of("petclinic.cache.defaults.heap-entries", "50",
+				"petclinic.cache.defaults.time-to-live", "1h", "petclinic.cache.caches.vets.off-heap-size", "4MB"));
+
+		PetClinicCacheProperties.Spec vets = properties.getCache("vets");
+		assertThat(vets.getHeapEntries()).isEqualTo(50);
+		assertThat(vets.getOffHeapSize()).isEqualTo(DataSize.ofMegabytes(4));
+		assertThat(vets.getTimeToLive()).isEqualTo(Duration.ofHours(1));
+	}
+
+	@Test
+	void shouldUseDefaultsForUnlistedCaches() {
+		PetClinicCacheProperties properties = bind(Map.of("petclinic.cache.caches.vets.heap-entries", "10"));
+
+		PetClinicCacheProperties.Spec owners = properties.getCache("owners");
+		assertThat(owners.getHeapEntries()).isEqualTo(1000);
+		assertThat(owners.getOffHeapSize()).isEqualTo(DataSize.ofBytes(0));
+		assertThat(owners.getTimeToLive()).isEqualTo(Duration.ofMinutes(10));
+	}
+
+	private PetClinicCacheProperties bind(Map<String, String> properties) {
+		return new Binder(new MapConfigurationPropertySource(properties))
+				.bind("petclinic.cache", PetClinicCacheProperties.class).get();
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link QueryStatsFilter}
+ */
+@SpringBootTest
+@ExtendWith(OutputCaptureExtension.class)
+class QueryStatsTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setup() {
+		QueryStatsProperties properties = new QueryStatsProperties();
+		properties.setResponseHeaders(true);
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context)
+				.addFilters(new QueryStatsFilter(properties, this.registry)).build();
+	}
+
+	@Test
+	void showOwnerShouldNotSelectEachPetsVisits() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}", 6)).andExpect(status().isOk()).andExpect(maxStatements(4));
+	}
+
+	@Test
+	void findOwnersShouldRedirectWithFewStatements() throws Exception {
+		this.mockMvc.perform(get("/owners").param("lastName", "Franklin")).andExpect(status().is3xxRedirection())
+				.andExpect(maxStatements(3));
+	}
+
+	@Test
+	void shouldRecordStatementsPerRoute() throws Exception {
+		// the owner page would otherwise be served from the caches without any statement
+		this.cacheManager.getCache("owners").clear();
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		this.mockMvc.perform(get("/owners/{ownerId}", 1)).andExpect(status().isOk());
+
+		DistributionSummary statements = this.registry.get("petclinic.requests.statements")
+				.tag("route", "/owners/{ownerId}").summary();
+		assertThat(statements.count()).isPositive();
+		assertThat(statements.totalAmount()).isPositive();
+	}
+
+	@Test
+	void shouldWarnAboutRepeatedStatements(CapturedOutput output) throws Exception {
+		QueryStatsProperties properties = new QueryStatsProperties();
+		properties.setResponseHeaders(true);
+		QueryStatsFilter filter = new QueryStatsFilter(properties, new SimpleMeterRegistry());
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/owners/1");
+		request.setAttribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE,
+				new PathPatternParser().parse("/owners/{ownerId}"));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(request, response, new MockFilterChain() {
+
+			@Override
+			public void doFilter(ServletRequest req, ServletResponse res) {
+				QueryStats stats = QueryStats.current();
+				for (int petId = 1; petId <= 5; petId++) {
+					stats.statementPrepared("select * from visits where pet_id=" + petId);
+				}
+			}
+
+		});
+
+		assertThat(response.getHeader(QueryStatsFilter.STATEMENTS_HEADER)).isEqualTo("5");
+		assertThat(output).doesNotContain("issued 5 SQL statements");
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+
+			@Override
+			public void doFilter(ServletRequest req, ServletResponse res) {
+				QueryStats stats = QueryStats.current();
+				for (int i = 0; i < 5; i++) {
+					stats.statementPrepared("select * from visits where pet_id=?");
+				}
+			}
+
+		});
+		assertThat(output).contains("GET /owners/{ownerId} issued 5 SQL statements")
+				.contains("the most repeated one 5 times: select * from visits where pet_id=?");
+	}
+
+	@Test
+	void shouldNotBufferStreamedResponses() throws Exception {
+		this.mockMvc.perform(get("/owners/export")).andExpect(status().isOk())
+				.andExpect(header().doesNotExist(QueryStatsFilter.STATEMENTS_HEADER));
+
+		assertThat(this.registry.get("petclinic.requests.statements").tag("route", "/owners/export").summary().count())
+				.isPositive();
+	}
+
+	@Test
+	void shouldCountInListsAsOneShape() {
+		QueryStats stats = new QueryStats();
+		stats.statementPrepared("select * from pets where id in (?, ?)");
+		stats.statementPrepared("select * from pets where id in (?,?,?)");
+		stats.statementPrepared("select * from pets where id=?");
+
+		assertThat(stats.getStatements()).isEqualTo(3);
+		assertThat(stats.getMostRepeatedStatement().getKey()).isEqualTo("select * from pets where id in (...)");
+		assertThat(stats.getMostRepeatedStatement().getValue()).isEqualTo(2);
+	}
+
+	/**
+	 * Assert that a request issued at most the given number of SQL statements.
+	 */
+	static ResultMatcher maxStatements(int max) {
+		return (result) -> assertThat(
+				Integer.parseInt(result.getResponse().getHeader(QueryStatsFilter.STATEMENTS_HEADER)))
+						.as("SQL statements issued").isLessThanOrEqualTo(max);
+	}
+
+}
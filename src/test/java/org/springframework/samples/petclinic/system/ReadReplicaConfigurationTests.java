@@ -0,0 +1,131 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hsqldb.jdbc.JDBCDriver;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration test of {@link ReadReplicaConfiguration}, using in-memory HSQLDB databases
+ * as stand-ins for the primary and its replica. The caches live in a cache manager of
+ * their own, so that they do not mix entities of these databases with the ones of the
+ * other tests.
+ */
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:hsqldb:mem:routing-primary", "spring.datasource.username=sa",
+		"petclinic.datasource.replicas[0].url=jdbc:hsqldb:mem:routing-replica",
+		"spring.cache.jcache.config=classpath:ehcache-read-replica.xml",
+		"spring.datasource.hikari.transaction-isolation=TRANSACTION_SERIALIZABLE" })
+@AutoConfigureMockMvc
+class ReadReplicaConfigurationTests {
+
+	private static final DataSource PRIMARY = database("routing-primary");
+
+	private static final DataSource REPLICA = database("routing-replica");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private Environment environment;
+
+	@BeforeAll
+	static void initializeReplica() {
+		new ResourceDatabasePopulator(new ClassPathResource("db/hsqldb/schema.sql"),
+				new ClassPathResource("db/hsqldb/data.sql")).execute(REPLICA);
+	}
+
+	@Test
+	void shouldWriteSubmittedFormsToThePrimaryOnly() throws Exception {
+		// the owner is then read from the replica before the pet is written
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		this.mockMvc.perform(post("/owners/{ownerId}/pets/new", 1).param("name", "Routed").param("type", "hamster")
+				.param("birthDate", "2015-02-12")).andExpect(status().is3xxRedirection());
+
+		String count = "SELECT COUNT(*) FROM pets WHERE name = 'Routed'";
+		assertThat(new JdbcTemplate(PRIMARY).queryForObject(count, Integer.class)).isOne();
+		assertThat(new JdbcTemplate(REPLICA).queryForObject(count, Integer.class)).isZero();
+	}
+
+	@Test
+	void shouldLoadOwnerDetailsFromThePrimary() throws Exception {
+		// the owner version is read from the primary, a lagging replica must not be
+		// cached under it
+		new JdbcTemplate(PRIMARY)
+				.update("UPDATE owners SET first_name = 'Primary', version = version + 1 WHERE id = 2");
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		this.mockMvc.perform(get("/owners/{ownerId}", 2)).andExpect(status().isOk())
+				.andExpect(model().attribute("owner", hasProperty("firstName", is("Primary"))));
+	}
+
+	@Test
+	void shouldTurnOpenInViewOff() {
+		assertThat(this.environment.getProperty("spring.jpa.open-in-view")).isEqualTo("false");
+	}
+
+	@Test
+	void shouldBindHikariPropertiesToEveryPool() throws SQLException {
+		ReadReplicaRoutingDataSource routingDataSource = this.dataSource.unwrap(ReadReplicaRoutingDataSource.class);
+		try (Connection connection = routingDataSource.getConnection()) {
+			assertThat(connection.getTransactionIsolation()).isEqualTo(Connection.TRANSACTION_SERIALIZABLE);
+		}
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		try (Connection connection = routingDataSource.getConnection()) {
+			assertThat(connection.getTransactionIsolation()).isEqualTo(Connection.TRANSACTION_SERIALIZABLE);
+			assertThat(routingDataSource.getActiveReplicaConnections()).containsExactly(1);
+		}
+		finally {
+			TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		}
+	}
+
+	private static DataSource database(String name) {
+		return new SimpleDriverDataSource(new JDBCDriver(), "jdbc:hsqldb:mem:" + name, "sa", "");
+	}
+
+}
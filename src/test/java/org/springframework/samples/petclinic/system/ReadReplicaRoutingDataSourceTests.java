@@ -0,0 +1,144 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hsqldb.jdbc.JDBCDriver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.samples.petclinic.system.ReadReplicaRoutingDataSource.Selection;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link ReadReplicaRoutingDataSource}, using in-memory HSQLDB databases
+ * as stand-ins for the primary and its replicas.
+ */
+class ReadReplicaRoutingDataSourceTests {
+
+	private final DataSource primary = database("primary");
+
+	private final DataSource replica1 = database("replica1");
+
+	private final DataSource replica2 = database("replica2");
+
+	@AfterEach
+	void clearReadOnlyFlag() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+	@Test
+	void shouldRouteReadOnlyTransactionsToReplicasInTurn() {
+		DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(this.primary,
+				List.of(this.replica1, this.replica2), Selection.ROUND_ROBIN, Duration.ofSeconds(30)));
+		assertThat(databaseName(dataSource, true)).isEqualTo("replica1");
+		assertThat(databaseName(dataSource, true)).isEqualTo("replica2");
+		assertThat(databaseName(dataSource, true)).isEqualTo("replica1");
+	}
+
+	@Test
+	void shouldRouteReadWriteTransactionsAndPlainConnectionsToPrimary() throws Exception {
+		DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(this.primary,
+				List.of(this.replica1, this.replica2), Selection.ROUND_ROBIN, Duration.ofSeconds(30)));
+		assertThat(databaseName(dataSource, false)).isEqualTo("primary");
+		assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT name FROM marker", String.class))
+				.isEqualTo("primary");
+	}
+
+	@Test
+	void shouldRouteConnectionsWithExplicitCredentials() throws Exception {
+		ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource(this.primary, List.of(this.replica1),
+				Selection.ROUND_ROBIN, Duration.ofSeconds(30));
+		try (Connection connection = dataSource.getConnection("sa", "")) {
+			assertThat(databaseName(connection)).isEqualTo("primary");
+		}
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		try (Connection connection = dataSource.getConnection("sa", "")) {
+			assertThat(databaseName(connection)).isEqualTo("replica1");
+			assertThat(dataSource.getActiveReplicaConnections()).containsExactly(1);
+		}
+	}
+
+	@Test
+	void shouldRouteToReplicaWithFewestActiveConnections() throws Exception {
+		ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource(this.primary,
+				List.of(this.replica1, this.replica2), Selection.LEAST_CONNECTIONS, Duration.ofSeconds(30));
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		try (Connection first = dataSource.getConnection()) {
+			assertThat(databaseName(first)).isEqualTo("replica1");
+			try (Connection second = dataSource.getConnection()) {
+				assertThat(databaseName(second)).isEqualTo("replica2");
+				assertThat(dataSource.getActiveReplicaConnections()).containsExactly(1, 1);
+			}
+			try (Connection third = dataSource.getConnection()) {
+				assertThat(databaseName(third)).isEqualTo("replica2");
+			}
+		}
+		assertThat(dataSource.getActiveReplicaConnections()).containsExactly(0, 0);
+	}
+
+	@Test
+	void shouldFallBackToPrimaryWhenReplicaIsUnhealthy() {
+		DataSource unavailable = new SimpleDriverDataSource(new JDBCDriver(), "jdbc:hsqldb:mem:missing;ifexists=true",
+				"sa", "");
+		DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(this.primary,
+				List.of(unavailable), Selection.ROUND_ROBIN, Duration.ofSeconds(30)));
+		assertThat(databaseName(dataSource, true)).isEqualTo("primary");
+		assertThat(databaseName(dataSource, true)).isEqualTo("primary");
+
+		DataSource withHealthyReplica = new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(this.primary,
+				List.of(unavailable, this.replica1), Selection.ROUND_ROBIN, Duration.ofSeconds(30)));
+		assertThat(databaseName(withHealthyReplica, true)).isEqualTo("primary");
+		assertThat(databaseName(withHealthyReplica, true)).isEqualTo("replica1");
+		assertThat(databaseName(withHealthyReplica, true)).isEqualTo("replica1");
+	}
+
+	private static String databaseName(DataSource dataSource, boolean readOnly) {
+		TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		transaction.setReadOnly(readOnly);
+		return transaction.execute(
+				(status) -> new JdbcTemplate(dataSource).queryForObject("SELECT name FROM marker", String.class));
+	}
+
+	private static String databaseName(Connection connection) throws Exception {
+		return new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+				.queryForObject("SELECT name FROM marker", String.class);
+	}
+
+	private static DataSource database(String name) {
+		DataSource dataSource = new SimpleDriverDataSource(new JDBCDriver(), "jdbc:hsqldb:mem:" + name, "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("DROP TABLE marker IF EXISTS");
+		jdbc.execute("CREATE TABLE marker (name VARCHAR(30))");
+		jdbc.update("INSERT INTO marker VALUES (?)", name);
+		return dataSource;
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link RouteMetrics}
+ */
+@SpringBootTest
+class RouteMetricsTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setup() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	void shouldTimeRoutesByPattern() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}", 1)).andExpect(status().isOk());
+		this.mockMvc.perform(get("/owners/{ownerId}", 2)).andExpect(status().isOk());
+
+		Timer timer = this.registry.get(RouteMetrics.METRIC_NAME).tag("route", "/owners/{ownerId}").tag("method", "GET")
+				.tag("status", "200").tag("exception", "None").timer();
+		assertThat(timer.count()).isGreaterThanOrEqualTo(2);
+		HistogramSnapshot snapshot = timer.takeSnapshot();
+		assertThat(snapshot.percentileValues()).hasSize(3);
+		assertThat(snapshot.histogramCounts()).hasSize(5);
+	}
+
+	@Test
+	void shouldTagResponseStatus() throws Exception {
+		this.mockMvc.perform(get("/owners").param("lastName", "Franklin")).andExpect(status().is3xxRedirection());
+
+		assertThat(this.registry.get(RouteMetrics.METRIC_NAME).tag("route", "/owners").tag("status", "302").timer()
+				.count()).isPositive();
+	}
+
+	@Test
+	void shouldTagExceptions() {
+		assertThatThrownBy(() -> this.mockMvc.perform(get("/oups"))).hasRootCauseInstanceOf(RuntimeException.class);
+
+		assertThat(this.registry.get(RouteMetrics.METRIC_NAME).tag("route", "/oups").tag("status", "500")
+				.tag("exception", "RuntimeException").timer().count()).isPositive();
+	}
+
+}
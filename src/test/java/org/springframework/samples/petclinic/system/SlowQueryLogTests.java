@@ -0,0 +1,116 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link SlowQueryLog} and {@link SlowQueryDataSource}
+ */
+@SpringBootTest
+class SlowQueryLogTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Test
+	void shouldKeepTheSlowestStatements() {
+		SlowQueryLog log = new SlowQueryLog(2, Duration.ZERO);
+		for (int millis : new int[] { 5, 30, 10, 20, 1 }) {
+			log.record("select " + millis, List.of(), 1, TimeUnit.MILLISECONDS.toNanos(millis));
+		}
+
+		assertThat(log.getEntries()).extracting(SlowQueryLog.Entry::getSql).containsExactly("select 30", "select 20");
+		assertThat(log.getEntries().get(0).getElapsed()).isEqualTo(Duration.ofMillis(30));
+	}
+
+	@Test
+	void shouldIgnoreStatementsFasterThanTheThreshold() {
+		SlowQueryLog log = new SlowQueryLog(10, Duration.ofMillis(10));
+		log.record("select 1", List.of(), 1, TimeUnit.MILLISECONDS.toNanos(9));
+
+		assertThat(log.isSlow(TimeUnit.MILLISECONDS.toNanos(9))).isFalse();
+		assertThat(log.getEntries()).isEmpty();
+	}
+
+	@Test
+	void shouldCaptureBindParameters() {
+		SlowQueryLog log = new SlowQueryLog(10, Duration.ZERO);
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+				.addScript("db/hsqldb/schema.sql").build();
+		try {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(new SlowQueryDataSource(database, log));
+			jdbcTemplate.batchUpdate("INSERT INTO types (id, name) VALUES (?, ?)",
+					List.of(new Object[] { 1, "cat" }, new Object[] { 2, "dog" }));
+			jdbcTemplate.queryForObject("SELECT name FROM types WHERE id = ?", String.class, 2);
+		}
+		finally {
+			database.shutdown();
+		}
+
+		List<SlowQueryLog.Entry> entries = log.getEntries();
+		SlowQueryLog.Entry insert = entries.stream().filter((entry) -> entry.getSql().startsWith("INSERT")).findFirst()
+				.get();
+		assertThat(insert.getParameters()).containsExactly("1", "cat");
+		assertThat(insert.getExecutions()).isEqualTo(2);
+		SlowQueryLog.Entry select = entries.stream().filter((entry) -> entry.getSql().startsWith("SELECT")).findFirst()
+				.get();
+		assertThat(select.getParameters()).containsExactly("2");
+		assertThat(select.getExecutions()).isEqualTo(1);
+		assertThat(entries.stream().map(SlowQueryLog.Entry::getRepositoryMethod).collect(Collectors.toList()))
+				.containsOnlyNulls();
+	}
+
+	@Test
+	void shouldAttributeStatementsToTheRepositoryMethod() {
+		SlowQueryLog log = new SlowQueryLog(10, Duration.ZERO);
+		ProxyFactory proxyFactory = new ProxyFactory(
+				(Runnable) () -> log.record("select 1", List.of(), 1, TimeUnit.MILLISECONDS.toNanos(1)));
+		proxyFactory.addAdvice(new RepositoryMethodTracker("TestRepository"));
+		((Runnable) proxyFactory.getProxy()).run();
+
+		assertThat(log.getEntries()).extracting(SlowQueryLog.Entry::getRepositoryMethod)
+				.containsExactly("TestRepository.run");
+		assertThat(RepositoryMethodTracker.current()).isNull();
+	}
+
+	@Test
+	void shouldExposeTheSlowQueriesEndpoint() throws Exception {
+		MockMvcBuilders.webAppContextSetup(this.context).build().perform(get("/manage/slowqueries"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$").isArray());
+	}
+
+}
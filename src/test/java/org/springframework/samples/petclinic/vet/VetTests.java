@@ -15,6 +15,8 @@
  */
 package org.springframework.samples.petclinic.vet;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.util.SerializationUtils;
 
@@ -37,4 +39,43 @@ class VetTests {
 		assertThat(other.getId()).isEqualTo(vet.getId());
 	}
 
+	@Test
+	void testSpecialtiesSortedByName() {
+		Vet vet = new Vet();
+		vet.addSpecialty(specialty("surgery"));
+		vet.addSpecialty(specialty("Dentistry"));
+		List<Specialty> specialties = vet.getSpecialties();
+		assertThat(specialties).extracting(Specialty::getName).containsExactly("Dentistry", "surgery");
+		assertThat(vet.getSpecialties()).isSameAs(specialties);
+
+		vet.addSpecialty(specialty("radiology"));
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("Dentistry", "radiology",
+				"surgery");
+		Vet other = (Vet) SerializationUtils.deserialize(SerializationUtils.serialize(vet));
+		assertThat(other.getSpecialties()).extracting(Specialty::getName).containsExactly("Dentistry", "radiology",
+				"surgery");
+	}
+
+	@Test
+	void testSpecialtiesResortedAfterChanges() {
+		Vet vet = new Vet();
+		Specialty surgery = specialty("surgery");
+		vet.addSpecialty(surgery);
+		vet.addSpecialty(specialty("dentistry"));
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("dentistry", "surgery");
+
+		surgery.setName("anesthesia");
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("anesthesia", "dentistry");
+
+		vet.getSpecialtiesInternal().remove(surgery);
+		vet.getSpecialtiesInternal().add(specialty("radiology"));
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("dentistry", "radiology");
+	}
+
+	private static Specialty specialty(String name) {
+		Specialty specialty = new Specialty();
+		specialty.setName(name);
+		return specialty;
+	}
+
 }